@@ -0,0 +1,34 @@
+package hr.fer.zemris.java.custom.collections.benchmarks;
+
+import hr.fer.zemris.java.custom.collections.ArrayIndexedCollection;
+import hr.fer.zemris.java.custom.collections.Collection;
+
+/**
+ * {@link IndexedCollectionBenchmark} of {@link ArrayIndexedCollection}.
+ *
+ * @author Marko Benačić
+ *
+ */
+public class ArrayIndexedCollectionBenchmark extends IndexedCollectionBenchmark {
+
+	@Override
+	protected Collection createCollection() {
+		return new ArrayIndexedCollection();
+	}
+
+	@Override
+	protected Object get(int index) {
+		return ((ArrayIndexedCollection) collection).get(index);
+	}
+
+	@Override
+	protected void insert(Object value, int position) {
+		((ArrayIndexedCollection) collection).insert(value, position);
+	}
+
+	@Override
+	protected void remove(int index) {
+		((ArrayIndexedCollection) collection).remove(index);
+	}
+
+}
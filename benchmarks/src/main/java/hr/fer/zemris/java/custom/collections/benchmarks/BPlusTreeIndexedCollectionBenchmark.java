@@ -0,0 +1,34 @@
+package hr.fer.zemris.java.custom.collections.benchmarks;
+
+import hr.fer.zemris.java.custom.collections.BPlusTreeIndexedCollection;
+import hr.fer.zemris.java.custom.collections.Collection;
+
+/**
+ * {@link IndexedCollectionBenchmark} of {@link BPlusTreeIndexedCollection}.
+ *
+ * @author Marko Benačić
+ *
+ */
+public class BPlusTreeIndexedCollectionBenchmark extends IndexedCollectionBenchmark {
+
+	@Override
+	protected Collection createCollection() {
+		return new BPlusTreeIndexedCollection();
+	}
+
+	@Override
+	protected Object get(int index) {
+		return ((BPlusTreeIndexedCollection) collection).get(index);
+	}
+
+	@Override
+	protected void insert(Object value, int position) {
+		((BPlusTreeIndexedCollection) collection).insert(value, position);
+	}
+
+	@Override
+	protected void remove(int index) {
+		((BPlusTreeIndexedCollection) collection).remove(index);
+	}
+
+}
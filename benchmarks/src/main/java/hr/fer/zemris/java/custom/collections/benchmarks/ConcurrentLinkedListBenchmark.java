@@ -0,0 +1,98 @@
+package hr.fer.zemris.java.custom.collections.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.custom.collections.ConcurrentLinkedListIndexedCollection;
+import hr.fer.zemris.java.custom.collections.LinkedListIndexedCollection;
+
+/**
+ * Throughput of a mixed workload (mostly <code>contains</code>, some adds and removes by value) on a list shared
+ * by all benchmark threads: {@link ConcurrentLinkedListIndexedCollection} against
+ * {@link LinkedListIndexedCollection} guarded by a single lock. Each add is paired with a removal, so the list
+ * keeps its size.
+ * <p>
+ * Scalability is measured by running the benchmark with different numbers of threads, for example:
+ * <pre>
+ * for t in 1 2 4 8 16 32 64; do java -jar benchmarks/target/benchmarks.jar ConcurrentLinkedListBenchmark -t $t; done
+ * </pre>
+ *
+ * @author Marko Benačić
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentLinkedListBenchmark {
+
+	/**
+	 * Number of elements in the list.
+	 */
+	@Param({"64", "1024"})
+	public int size;
+
+	/**
+	 * Percentage of operations which add and remove an element, the rest are lookups.
+	 */
+	@Param({"10", "50"})
+	public int writePercentage;
+
+	private ConcurrentLinkedListIndexedCollection concurrent;
+
+	private LinkedListIndexedCollection locked;
+
+	private Integer[] values;
+
+	@Setup
+	public void setUp() {
+		concurrent = new ConcurrentLinkedListIndexedCollection();
+		locked = new LinkedListIndexedCollection();
+		values = new Integer[size];
+		for(int i = 0; i < size; i++) {
+			values[i] = Integer.valueOf(i);
+			concurrent.add(values[i]);
+			locked.add(values[i]);
+		}
+	}
+
+	@Benchmark
+	public boolean concurrentList() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		Integer value = values[random.nextInt(size)];
+		if(random.nextInt(100) < writePercentage) {
+			concurrent.add(value);
+			return concurrent.remove(value);
+		}
+		return concurrent.contains(value);
+	}
+
+	@Benchmark
+	public boolean lockedList() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		Integer value = values[random.nextInt(size)];
+		boolean write = random.nextInt(100) < writePercentage;
+		synchronized(locked) {
+			if(write) {
+				locked.add(value);
+				return locked.remove(value);
+			}
+			return locked.contains(value);
+		}
+	}
+
+}
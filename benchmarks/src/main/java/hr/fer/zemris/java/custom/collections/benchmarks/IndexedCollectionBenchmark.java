@@ -0,0 +1,161 @@
+package hr.fer.zemris.java.custom.collections.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hr.fer.zemris.java.custom.collections.Collection;
+import hr.fer.zemris.java.custom.collections.Processor;
+
+/**
+ * Benchmarks of the common operations of indexed collections, for collections of 10 up to 10^7 elements.
+ * Concrete subclasses choose the collection implementation.
+ * <p>
+ * Operations which change the size are paired with the opposite operation (insert with remove at the same
+ * position, <code>remove(Object)</code> with inserting the value back), so the collection keeps its size
+ * during a measurement and each reported time is the cost of the pair.
+ *
+ * @author Marko Benačić
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class IndexedCollectionBenchmark {
+
+	/**
+	 * Number of elements in the collection.
+	 */
+	@Param({"10", "100", "1000", "10000", "100000", "1000000", "10000000"})
+	public int size;
+
+	/**
+	 * Collection being measured, holding Integers 0 to size - 1.
+	 */
+	protected Collection collection;
+
+	/**
+	 * Value which is not in the collection.
+	 */
+	private Integer missing;
+
+	/**
+	 * Value in the middle of the collection.
+	 */
+	private Integer middle;
+
+	/**
+	 * Index used by the next <code>get</code>, walks over the whole collection.
+	 */
+	private int nextIndex;
+
+	/**
+	 * Creates an empty collection of the measured implementation.
+	 */
+	protected abstract Collection createCollection();
+
+	protected abstract Object get(int index);
+
+	protected abstract void insert(Object value, int position);
+
+	protected abstract void remove(int index);
+
+	@Setup
+	public void setUp() {
+		collection = createCollection();
+		for(int i = 0; i < size; i++) {
+			collection.add(Integer.valueOf(i));
+		}
+		missing = Integer.valueOf(-1);
+		middle = Integer.valueOf(size / 2);
+	}
+
+	@Benchmark
+	public void addAndRemoveLast() {
+		collection.add(missing);
+		remove(size);
+	}
+
+	@Benchmark
+	public void insertAndRemoveHead() {
+		insert(missing, 0);
+		remove(0);
+	}
+
+	@Benchmark
+	public void insertAndRemoveMiddle() {
+		insert(missing, size / 2);
+		remove(size / 2);
+	}
+
+	@Benchmark
+	public void insertAndRemoveTail() {
+		insert(missing, size);
+		remove(size);
+	}
+
+	@Benchmark
+	public Object getSequential() {
+		int index = nextIndex;
+		nextIndex = index + 1 == size ? 0 : index + 1;
+		return get(index);
+	}
+
+	@Benchmark
+	public Object getMiddle() {
+		return get(size / 2);
+	}
+
+	@Benchmark
+	public boolean containsMissing() {
+		return collection.contains(missing);
+	}
+
+	@Benchmark
+	public boolean containsMiddle() {
+		return collection.contains(middle);
+	}
+
+	@Benchmark
+	public void removeObjectAndInsertMiddle() {
+		collection.remove(middle);
+		insert(middle, size / 2);
+	}
+
+	@Benchmark
+	public void forEach(final Blackhole blackhole) {
+		collection.forEach(new Processor() {
+			@Override
+			public void process(Object value) {
+				blackhole.consume(value);
+			}
+		});
+	}
+
+	@Benchmark
+	public Object[] toArray() {
+		return collection.toArray();
+	}
+
+	@Benchmark
+	public Collection addAll() {
+		Collection copy = createCollection();
+		copy.addAll(collection);
+		return copy;
+	}
+
+}
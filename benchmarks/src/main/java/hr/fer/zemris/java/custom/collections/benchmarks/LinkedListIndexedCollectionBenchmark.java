@@ -0,0 +1,34 @@
+package hr.fer.zemris.java.custom.collections.benchmarks;
+
+import hr.fer.zemris.java.custom.collections.LinkedListIndexedCollection;
+import hr.fer.zemris.java.custom.collections.Collection;
+
+/**
+ * {@link IndexedCollectionBenchmark} of {@link LinkedListIndexedCollection}.
+ *
+ * @author Marko Benačić
+ *
+ */
+public class LinkedListIndexedCollectionBenchmark extends IndexedCollectionBenchmark {
+
+	@Override
+	protected Collection createCollection() {
+		return new LinkedListIndexedCollection();
+	}
+
+	@Override
+	protected Object get(int index) {
+		return ((LinkedListIndexedCollection) collection).get(index);
+	}
+
+	@Override
+	protected void insert(Object value, int position) {
+		((LinkedListIndexedCollection) collection).insert(value, position);
+	}
+
+	@Override
+	protected void remove(int index) {
+		((LinkedListIndexedCollection) collection).remove(index);
+	}
+
+}
@@ -0,0 +1,63 @@
+package hr.fer.zemris.java.custom.collections.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.custom.collections.ObjectStack;
+
+/**
+ * Benchmarks of {@link ObjectStack} push and pop on a stack already holding a given number of elements.
+ *
+ * @author Marko Benačić
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectStackBenchmark {
+
+	/**
+	 * Number of elements on the stack before each operation.
+	 */
+	@Param({"10", "1000", "100000"})
+	public int depth;
+
+	private ObjectStack stack;
+
+	private Integer value;
+
+	@Setup
+	public void setUp() {
+		stack = new ObjectStack();
+		for(int i = 0; i < depth; i++) {
+			stack.push(Integer.valueOf(i));
+		}
+		value = Integer.valueOf(42);
+	}
+
+	@Benchmark
+	public Object pushAndPop() {
+		stack.push(value);
+		return stack.pop();
+	}
+
+	@Benchmark
+	public Object peek() {
+		return stack.peek();
+	}
+
+}
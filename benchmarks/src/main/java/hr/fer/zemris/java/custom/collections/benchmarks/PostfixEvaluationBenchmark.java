@@ -0,0 +1,82 @@
+package hr.fer.zemris.java.custom.collections.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.custom.collections.ObjectStack;
+import hr.fer.zemris.java.custom.collections.demo.InfixProgramCache;
+import hr.fer.zemris.java.custom.collections.demo.PostfixProgram;
+import hr.fer.zemris.java.custom.collections.demo.StackDemo;
+
+/**
+ * Benchmarks of postfix expression evaluation: the {@link StackDemo} path (splitting the expression and calling
+ * <code>calculatePostfix</code> for every token), a compiled {@link PostfixProgram}, and an infix formula
+ * evaluated through {@link InfixProgramCache}.
+ *
+ * @author Marko Benačić
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostfixEvaluationBenchmark {
+
+	/**
+	 * Expression being evaluated.
+	 */
+	@Param({"-1 8 2 / +", "3 4 * 2 - 7 % 100 * 25 / 6 + 1 -"})
+	public String expression;
+
+	private PostfixProgram program;
+
+	private InfixProgramCache infixCache;
+
+	private String infix;
+
+	@Setup
+	public void setUp() {
+		program = PostfixProgram.compile(expression);
+		infixCache = new InfixProgramCache(16);
+		infix = "(3 * 4 - 2) % 7 * 100 / 25 + 6 - 1";
+	}
+
+	@Benchmark
+	public Object stackDemo() {
+		String[] elements = expression.split("\\s+");
+		ObjectStack stack = new ObjectStack();
+		for(int i = 0; i < elements.length; i++) {
+			StackDemo.calculatePostfix(elements[i], stack);
+		}
+		return stack.pop();
+	}
+
+	@Benchmark
+	public int compiled() {
+		return program.evaluate();
+	}
+
+	@Benchmark
+	public int compiledFromCache() {
+		return PostfixProgram.cached(expression).evaluate();
+	}
+
+	@Benchmark
+	public int infixFromCache() {
+		return infixCache.evaluate(infix);
+	}
+
+}
@@ -0,0 +1,102 @@
+package hr.fer.zemris.java.custom.collections.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.custom.collections.ArrayIndexedCollection;
+import hr.fer.zemris.java.custom.collections.SortedArrayIndexedCollection;
+
+/**
+ * Benchmarks of <code>contains</code> with random keys, half of them present: linear scan of
+ * {@link ArrayIndexedCollection}, binary search of {@link SortedArrayIndexedCollection}, and the same collection
+ * searched in Eytzinger layout.
+ *
+ * @author Marko Benačić
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortedLookupBenchmark {
+
+	/**
+	 * Number of elements in the collections.
+	 */
+	@Param({"100", "10000", "1000000"})
+	public int size;
+
+	/**
+	 * Number of precomputed keys, a power of two.
+	 */
+	private static final int KEYS = 1 << 12;
+
+	private ArrayIndexedCollection array;
+
+	private SortedArrayIndexedCollection sorted;
+
+	private SortedArrayIndexedCollection eytzinger;
+
+	/**
+	 * Keys searched for, in random order. Even values are present in the collections, odd ones are not.
+	 */
+	private Integer[] keys;
+
+	private int nextKey;
+
+	@Setup
+	public void setUp() {
+		array = new ArrayIndexedCollection(size);
+		for(int i = 0; i < size; i++) {
+			array.add(Integer.valueOf(2 * i));
+		}
+		sorted = new SortedArrayIndexedCollection();
+		sorted.addAll(array);
+		eytzinger = new SortedArrayIndexedCollection();
+		eytzinger.addAll(array);
+		eytzinger.setReadOptimized(true);
+		eytzinger.contains(Integer.valueOf(0));
+
+		Random random = new Random(42);
+		keys = new Integer[KEYS];
+		for(int i = 0; i < KEYS; i++) {
+			keys[i] = Integer.valueOf(random.nextInt(2 * size));
+		}
+	}
+
+	private Integer nextKey() {
+		Integer key = keys[nextKey];
+		nextKey = (nextKey + 1) & (KEYS - 1);
+		return key;
+	}
+
+	@Benchmark
+	public boolean linearScan() {
+		return array.contains(nextKey());
+	}
+
+	@Benchmark
+	public boolean binarySearch() {
+		return sorted.contains(nextKey());
+	}
+
+	@Benchmark
+	public boolean eytzingerSearch() {
+		return eytzinger.contains(nextKey());
+	}
+
+}
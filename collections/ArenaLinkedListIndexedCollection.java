@@ -0,0 +1,445 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * Linked list implementation of Collection class which keeps its nodes in parallel arrays instead of node objects.
+ * A node is just a slot: its value is in <code>values</code>, and links to neighbouring nodes are
+ * <code>int</code> slot numbers in <code>next</code> and <code>previous</code>. Removed slots are chained into a
+ * free list and reused by later inserts, so once the arrays have grown no operation allocates, and the garbage
+ * collector sees three arrays instead of one object per element.
+ * Accepts duplicate elements, but not null elements.
+ * @author Marko Benačić
+ *
+ */
+public class ArenaLinkedListIndexedCollection extends Collection{
+
+	/**
+	 * default size of the underlying arrays. Will be used if initial capacity is not given.
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Slot number representing no node.
+	 */
+	private static final int NIL = -1;
+
+	/**
+	 * number of elements in our list.
+	 */
+	private int size;
+
+	/**
+	 * Number of structural modifications (insertions, removals and clearing) of the collection.
+	 * Used by elements getters to detect that the collection was changed while they were used.
+	 */
+	private long modificationCount;
+
+	/**
+	 * slot of the first element in the list.
+	 */
+	private int first;
+
+	/**
+	 * slot of the last element in the list.
+	 */
+	private int last;
+
+	/**
+	 * First slot of the free list, chained through <code>next</code>.
+	 */
+	private int free;
+
+	/**
+	 * Number of slots that have ever been used. Slots above it are neither in the list nor in the free list.
+	 */
+	private int used;
+
+	/**
+	 * Value stored in each slot.
+	 */
+	private Object[] values;
+
+	/**
+	 * Slot of the next node for each slot.
+	 */
+	private int[] next;
+
+	/**
+	 * Slot of the previous node for each slot.
+	 */
+	private int[] previous;
+
+	/**
+	 * Default constructor, creates empty collection with default capacity (which is 16).
+	 */
+	public ArenaLinkedListIndexedCollection() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty collection with given initial capacity.
+	 * @param initialCapacity specified capacity of the collection.
+	 * @throws IllegalArgumentException if capacity is less than 1.
+	 */
+	public ArenaLinkedListIndexedCollection(int initialCapacity) {
+		if(initialCapacity < 1) {
+			throw new IllegalArgumentException("initialCapacity can't be less than 1");
+		}
+
+		this.values = new Object[initialCapacity];
+		this.next = new int[initialCapacity];
+		this.previous = new int[initialCapacity];
+		this.first = this.last = this.free = NIL;
+		this.size = 0;
+		this.used = 0;
+	}
+
+	/**
+	 * Creates a new collection and copies elements of the other collection into the new one.
+	 * @param other collection which elements will be copied into new collection.
+	 */
+	public ArenaLinkedListIndexedCollection(Collection other) {
+		this(Math.max(DEFAULT_CAPACITY, other.size()));
+		this.addAll(other);
+	}
+
+	/**
+	 * Adds the given object at the end of collection. Complexity O(1).
+	 * @throws NullPointerException if given value is <code>null</code>.
+	 */
+	@Override
+	public void add(Object value) {
+		if(value == null) {
+			throw new NullPointerException("given value can not be null");
+		}
+
+		insert(value, size);
+	}
+
+	/**
+	 * retrieves object from collection at the given index. Complexity O(n/2 + 1).
+	 * @param index index from which the element will be retrieved;
+	 * @return Object at given index in the collection.
+	 * @throws IndexOutOfBoundsException if given index is not within range [0, size - 1].
+	 */
+	public Object get(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("given index must be within range [0,size-1]");
+		}
+
+		return values[slotAt(index)];
+	}
+
+	/**
+	 * Removes all elements from the collection. Capacity remains the same.
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(values, 0, used, null);
+		first = last = free = NIL;
+		size = 0;
+		modificationCount++;
+		used = 0;
+	}
+
+	/**
+	 * Insert value at given position in the collection. Average complexity O(n/2 + 1).
+	 * @param value element to be inserted
+	 * @param position position in collection at which the element is inserted.
+	 * @throws NullPointerException if given value is <code>null</code>.
+	 * @throws IndexOutOfBoundsException if position is not within range [0, size].
+	 */
+	public void insert(Object value, int position) {
+		if(value == null) {
+			throw new NullPointerException("Can not insert value as null");
+		}
+		if(position < 0 || position > size) {
+			throw new IndexOutOfBoundsException("Position must be within range [0,size]");
+		}
+
+		int slot = allocate();
+		values[slot] = value;
+		if(position == size) {
+			previous[slot] = last;
+			next[slot] = NIL;
+			if(last == NIL) {
+				first = slot;
+			}else {
+				next[last] = slot;
+			}
+			last = slot;
+		}else {
+			int successor = slotAt(position);
+			int predecessor = previous[successor];
+			previous[slot] = predecessor;
+			next[slot] = successor;
+			previous[successor] = slot;
+			if(predecessor == NIL) {
+				first = slot;
+			}else {
+				next[predecessor] = slot;
+			}
+		}
+		size++;
+		modificationCount++;
+	}
+
+	/**
+	 * returns index within the collection of given value. Search is based on equals method. Complexity O(n).
+	 * @param value element that we are searching for in collection.
+	 * @return index of given element as int. If element is not found returns -1.
+	 * @throws IllegalArgumentException if given value is <code>null</code>.
+	 */
+	public int indexOf(Object value) {
+		if(value == null) {
+			throw new IllegalArgumentException("given value can not be null!");
+		}
+
+		int slot = first;
+		for(int i = 0; i < size; i++) {
+			if(values[slot].equals(value)) {
+				return i;
+			}
+			slot = next[slot];
+		}
+		return -1;
+	}
+
+	/**
+	 * removes element from collection at the given index. The freed slot is reused by the next insert.
+	 * @param index position from which the element is removed.
+	 * @throws IndexOutOfBoundsException if given index is not within range [0, size - 1].
+	 */
+	public void remove(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index must be within range [0, size - 1]");
+		}
+
+		int slot = slotAt(index);
+		int predecessor = previous[slot];
+		int successor = next[slot];
+		if(predecessor == NIL) {
+			first = successor;
+		}else {
+			next[predecessor] = successor;
+		}
+		if(successor == NIL) {
+			last = predecessor;
+		}else {
+			previous[successor] = predecessor;
+		}
+
+		values[slot] = null;
+		next[slot] = free;
+		free = slot;
+		size--;
+		modificationCount++;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the number of elements in the collection.
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks whether the collections contains the given element.
+	 * @param value Object value to search for in the collection.
+	 * @return <code>true</code> if given element is found, <code>false</code> otherwise.
+	 */
+	@Override
+	public boolean contains(Object value) {
+		return value != null && indexOf(value) != -1;
+	}
+
+	/**
+	 * Checks if the collection has a given element determined by equals method.
+	 * If it does, removes only one recurrence of it.
+	 */
+	@Override
+	public boolean remove(Object value) {
+		if(value == null) {
+			return false;
+		}
+		int index = indexOf(value);
+		if(index == -1) {
+			return false;
+		}
+		remove(index);
+		return true;
+	}
+
+	/**
+	 * Removes all elements which satisfy the given tester in a single walk through the list, unlinking each
+	 * matching slot in place and putting it into the free list. If the tester throws, elements tested so far are
+	 * removed and the rest are kept. Complexity O(n).
+	 * @param tester Tester deciding which elements are removed.
+	 * @return <code>true</code> if any element was removed, <code>false</code> otherwise.
+	 * @throws NullPointerException if given tester is <code>null</code>.
+	 */
+	@Override
+	public boolean removeIf(Tester tester) {
+		if(tester == null) {
+			throw new NullPointerException("Tester can not be null!");
+		}
+
+		int removed = 0;
+		try {
+			int slot = first;
+			for(int remaining = size; remaining > 0; remaining--) {
+				int successor = next[slot];
+				if(tester.test(values[slot])) {
+					int predecessor = previous[slot];
+					if(predecessor == NIL) {
+						first = successor;
+					}else {
+						next[predecessor] = successor;
+					}
+					if(successor == NIL) {
+						last = predecessor;
+					}else {
+						previous[successor] = predecessor;
+					}
+
+					values[slot] = null;
+					next[slot] = free;
+					free = slot;
+					size--;
+					removed++;
+				}
+				slot = successor;
+			}
+		}finally {
+			if(removed > 0) {
+				modificationCount++;
+			}
+		}
+		return removed > 0;
+	}
+
+	/**
+	 * Allocates a new array filled with this collections content, and returns it.
+	 */
+	@Override
+	public Object[] toArray() {
+		Object[] result = new Object[size];
+		int slot = first;
+		for(int i = 0; i < size; i++) {
+			result[i] = values[slot];
+			slot = next[slot];
+		}
+		return result;
+	}
+
+	@Override
+	public void forEach(Processor processor) {
+		int slot = first;
+		for(int i = 0; i < size; i++) {
+			processor.process(values[slot]);
+			slot = next[slot];
+		}
+	}
+
+	/**
+	 * Returns the slot of the element with given index, walking from the closer end of the list.
+	 */
+	private int slotAt(int index) {
+		if((size - index) >= index) {
+			int slot = first;
+			for(int i = 0; i < index; i++) {
+				slot = next[slot];
+			}
+			return slot;
+		}else {
+			int slot = last;
+			for(int i = size - 1; i > index; i--) {
+				slot = previous[slot];
+			}
+			return slot;
+		}
+	}
+
+	/**
+	 * Takes a slot from the free list, or a never used slot, growing the arrays if all slots are in use.
+	 */
+	private int allocate() {
+		if(free != NIL) {
+			int slot = free;
+			free = next[slot];
+			return slot;
+		}
+		if(used == values.length) {
+			int newCapacity = used * 2;
+			values = Arrays.copyOf(values, newCapacity);
+			next = Arrays.copyOf(next, newCapacity);
+			previous = Arrays.copyOf(previous, newCapacity);
+		}
+		return used++;
+	}
+	
+	/**
+	 * Creates a new elements getter over this collection. Each step of the getter is O(1).
+	 */
+	@Override
+	public ElementsGetter createElementsGetter() {
+		return new ArenaElementsGetter();
+	}
+	
+	/**
+	 * Elements getter which follows the <code>next</code> links.
+	 */
+	private class ArenaElementsGetter extends ElementsGetter{
+		
+		/**
+		 * slot of the next element to be returned.
+		 */
+		private int slot = first;
+		
+		/**
+		 * number of elements returned so far.
+		 */
+		private int returned;
+		
+		/**
+		 * modification count of the collection at the time the getter was created or last reset.
+		 */
+		private long expectedModificationCount = modificationCount;
+		
+		@Override
+		public boolean hasNext() {
+			if(expectedModificationCount != modificationCount) {
+				throw new ConcurrentModificationException("Collection was modified.");
+			}
+			return returned < size;
+		}
+		
+		@Override
+		public Object next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException("No more elements.");
+			}
+			Object value = values[slot];
+			slot = next[slot];
+			returned++;
+			return value;
+		}
+		
+		@Override
+		public void reset() {
+			slot = first;
+			returned = 0;
+			expectedModificationCount = modificationCount;
+		}
+	}
+
+}
@@ -1,6 +1,11 @@
 package hr.fer.zemris.java.custom.collections;
 
 import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * This is a resizable array-backed collection of objects 
@@ -25,11 +30,32 @@ public class ArrayIndexedCollection extends Collection{
 	 */
 	private int size;
 	
+	/**
+	 * Number of structural modifications (insertions, removals and clearing) of the collection.
+	 * Used by elements getters to detect that the collection was changed while they were used.
+	 */
+	private long modificationCount;
+	
 	/**
 	 * Array containing elements of the collection.
 	 */
 	private Object[] elements;
 	
+	/**
+	 * Capacity the collection was created with. Automatic shrinking never goes below it.
+	 */
+	private int minimumCapacity;
+	
+	/**
+	 * Strategy deciding the new capacity when the array is full.
+	 */
+	private GrowthPolicy growthPolicy = GrowthPolicy.DOUBLING;
+	
+	/**
+	 * Whether the array is shrunk when the collection becomes sparse.
+	 */
+	private boolean autoShrink;
+	
 	/**
 	 * Default constructor. Creates an empty collection with default capacity (which is 16).
 	 */
@@ -48,6 +74,7 @@ public class ArrayIndexedCollection extends Collection{
 		}
 		
 		this.size = 0;
+		this.minimumCapacity = initialCapacity;
 		this.elements = new Object[initialCapacity];
 	}
 	
@@ -77,18 +104,10 @@ public class ArrayIndexedCollection extends Collection{
 			throw new IllegalArgumentException("Initial capacity can't be less than 1");
 		}
 		
-		if(initialCapacity < other.size()) {
-		//	this.size = other.size();	ne treba ovo jer ce metoda add povecavati size
-			this.size = 0;
-			this.elements = new Object[size];
-			this.addAll(other);
-			// Arrays.copyOf() ???
-		}else {
-		//	this.size = other.size();
-			this.size = 0;
-			this.elements = new Object[initialCapacity];
-			this.addAll(other);
-		}
+		this.size = 0;
+		this.minimumCapacity = initialCapacity;
+		this.elements = new Object[Math.max(initialCapacity, other.size())];
+		this.addAll(other);
 	}
 	
 	/**
@@ -129,12 +148,70 @@ public class ArrayIndexedCollection extends Collection{
 	}
 	
 	/**
-	 * Removes all elements from the collection. Capacity remains the same.
+	 * Removes all elements from the collection. Capacity remains the same, unless automatic shrinking is enabled,
+	 * in which case capacity is set back to the initial capacity.
 	 */
 	@Override
 	public void clear() {
-		Arrays.fill(elements,null);
+		if(autoShrink && elements.length > minimumCapacity) {
+			elements = new Object[minimumCapacity];
+		}else {
+			Arrays.fill(elements, 0, size, null);
+		}
 		size = 0;
+		modificationCount++;
+	}
+	
+	/**
+	 * Returns the number of elements the collection can hold without reallocating its array.
+	 * @return current capacity.
+	 */
+	public int capacity() {
+		return elements.length;
+	}
+	
+	/**
+	 * Increases capacity, if needed, so that the collection can hold at least <code>minCapacity</code> elements
+	 * without reallocating. Useful before adding many elements whose number is known.
+	 * @param minCapacity required capacity.
+	 */
+	public void ensureCapacity(int minCapacity) {
+		if(minCapacity > elements.length) {
+			resize(growthPolicy.newCapacity(elements.length, minCapacity));
+		}
+	}
+	
+	/**
+	 * Reduces capacity to the current number of elements (but at least 1), releasing unused memory.
+	 */
+	public void trimToSize() {
+		int trimmed = Math.max(size, 1);
+		if(trimmed < elements.length) {
+			resize(trimmed);
+		}
+	}
+	
+	/**
+	 * Sets the strategy which decides how much the collection grows when its array is full.
+	 * @param growthPolicy new growth policy.
+	 * @throws NullPointerException if given policy is <code>null</code>.
+	 */
+	public void setGrowthPolicy(GrowthPolicy growthPolicy) {
+		if(growthPolicy == null) {
+			throw new NullPointerException("Growth policy can not be null!");
+		}
+		this.growthPolicy = growthPolicy;
+	}
+	
+	/**
+	 * Enables or disables automatic shrinking. When enabled, the array is halved once fewer than a quarter of
+	 * its slots are used, and <code>clear</code> resets it to the initial capacity. The gap between the two
+	 * thresholds keeps a collection whose size oscillates from reallocating on every operation.
+	 * Capacity never drops below the initial capacity.
+	 * @param autoShrink <code>true</code> to enable automatic shrinking.
+	 */
+	public void setAutoShrink(boolean autoShrink) {
+		this.autoShrink = autoShrink;
 	}
 	
 	
@@ -150,21 +227,25 @@ public class ArrayIndexedCollection extends Collection{
 			throw new IndexOutOfBoundsException("Index must be within [0,size]");
 		}
 		
-		// reallocate if elements has no free space OR required position is at the end of elements that has no free space
-		if((size == elements.length) || ((position == size) && (size == elements.length))) {
-			elements = Arrays.copyOf(elements, size*2);
+		if(size == elements.length) {
+			resize(growthPolicy.newCapacity(elements.length, size + 1));
 		}
 		
 		if(position < size) {
-			for(int i = size - 1; i >= position; i--) {
-				elements[i+1] = elements[i];
+			if(CollectionMetrics.ENABLED) {
+				CollectionMetrics.recordShift(size - position);
 			}
+			System.arraycopy(elements, position, elements, position + 1, size - position);
 			elements[position] = value;
 		}else {
 			elements[position] = value;
 		}
 		
 		size++;
+		modificationCount++;
+		if(CollectionMetrics.ENABLED) {
+			CollectionMetrics.recordSize(size);
+		}
 	}
 	
 	
@@ -181,12 +262,165 @@ public class ArrayIndexedCollection extends Collection{
 		if(index == size-1) {
 			elements[index] = null;
 		}else {
-			for(int i = index; i < size - 1; i++) {
-				elements[i] = elements[i + 1];
+			if(CollectionMetrics.ENABLED) {
+				CollectionMetrics.recordShift(size - 1 - index);
 			}
+			System.arraycopy(elements, index + 1, elements, index, size - 1 - index);
 			elements[size - 1] = null;   // had to do it this way in case array was full.
 		}
 		size--;
+		modificationCount++;
+		shrinkIfSparse();
+	}
+	
+	/**
+	 * Adds all elements of given collection at the end of this collection. The array is grown at most once, and
+	 * elements of another ArrayIndexedCollection are block-copied.
+	 * @param other collection whose elements are added.
+	 * @throws NullPointerException if given collection is <code>null</code>.
+	 */
+	@Override
+	public void addAll(Collection other) {
+		insertAll(other, size);
+	}
+	
+	/**
+	 * Inserts all elements of given collection, in their order, starting at given position. Elements at and after
+	 * the position are moved once, by the number of inserted elements, and the array is grown at most once.
+	 * Complexity O(n + m), where m is the size of the given collection.
+	 * @param other collection whose elements are inserted.
+	 * @param position position at which the first element will be inserted, must be within [0,size] (inclusive)
+	 * @throws NullPointerException if given collection is <code>null</code>.
+	 * @throws IndexOutOfBoundsException if position is not within [0,size] (inclusive)
+	 */
+	public void insertAll(Collection other, int position) {
+		if(other == null) {
+			throw new NullPointerException("Given collection can't be null");
+		}
+		if(position < 0 || position > size ) {
+			throw new IndexOutOfBoundsException("Index must be within [0,size]");
+		}
+		
+		Object[] source;
+		int count;
+		if(other instanceof ArrayIndexedCollection && other != this) {
+			source = ((ArrayIndexedCollection) other).elements;
+			count = ((ArrayIndexedCollection) other).size;
+		}else {
+			source = other.toArray();
+			count = source.length;
+			for(int i = 0; i < count; i++) {
+				if(source[i] == null) {
+					throw new NullPointerException("Value can not be null!");
+				}
+			}
+		}
+		if(count == 0) {
+			return;
+		}
+		
+		ensureCapacity(size + count);
+		if(position < size) {
+			if(CollectionMetrics.ENABLED) {
+				CollectionMetrics.recordShift(size - position);
+			}
+			System.arraycopy(elements, position, elements, position + count, size - position);
+		}
+		System.arraycopy(source, 0, elements, position, count);
+		
+		size += count;
+		modificationCount++;
+		if(CollectionMetrics.ENABLED) {
+			CollectionMetrics.recordSize(size);
+		}
+	}
+	
+	/**
+	 * Removes elements within range [fromIndex, toIndex) from the collection. Following elements are moved once,
+	 * with a single block copy. Complexity O(n).
+	 * @param fromIndex index of the first element to remove.
+	 * @param toIndex index after the last element to remove.
+	 * @throws IndexOutOfBoundsException if range is not within [0,size] or fromIndex is greater than toIndex.
+	 */
+	public void removeRange(int fromIndex, int toIndex) {
+		if(fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException("Range must be within [0,size] and fromIndex can't be greater than toIndex");
+		}
+		if(fromIndex == toIndex) {
+			return;
+		}
+		
+		if(CollectionMetrics.ENABLED) {
+			CollectionMetrics.recordShift(size - toIndex);
+		}
+		System.arraycopy(elements, toIndex, elements, fromIndex, size - toIndex);
+		int newSize = size - (toIndex - fromIndex);
+		Arrays.fill(elements, newSize, size, null);
+		
+		size = newSize;
+		modificationCount++;
+		shrinkIfSparse();
+	}
+	
+	/**
+	 * Removes all elements which satisfy the given tester in a single pass, moving each kept element at most once.
+	 * If the tester throws, elements tested so far are removed and the rest are kept. Complexity O(n).
+	 * @param tester Tester deciding which elements are removed.
+	 * @return <code>true</code> if any element was removed, <code>false</code> otherwise.
+	 * @throws NullPointerException if given tester is <code>null</code>.
+	 */
+	@Override
+	public boolean removeIf(Tester tester) {
+		if(tester == null) {
+			throw new NullPointerException("Tester can not be null!");
+		}
+		
+		int read = 0;
+		int write = 0;
+		try {
+			for(; read < size; read++) {
+				Object value = elements[read];
+				if(!tester.test(value)) {
+					elements[write++] = value;
+				}
+			}
+		}finally {
+			// if the tester threw, keep the untested tail
+			if(read < size) {
+				System.arraycopy(elements, read, elements, write, size - read);
+				write += size - read;
+			}
+			if(write < size) {
+				Arrays.fill(elements, write, size, null);
+				size = write;
+				modificationCount++;
+				shrinkIfSparse();
+			}
+		}
+		return read != write;
+	}
+	
+	/**
+	 * Halves the array if automatic shrinking is enabled and fewer than a quarter of its slots are used.
+	 */
+	private void shrinkIfSparse() {
+		if(autoShrink && size < elements.length / 4 && elements.length > minimumCapacity) {
+			resize(Math.max(elements.length / 2, minimumCapacity));
+		}
+	}
+	
+	/**
+	 * Reallocates the array to given capacity, which must not be less than size.
+	 */
+	private void resize(int newCapacity) {
+		if(CollectionMetrics.ENABLED) {
+			if(newCapacity > elements.length) {
+				CollectionMetrics.recordReallocation(size);
+			}else {
+				CollectionMetrics.recordShrink(size);
+			}
+		}
+		elements = Arrays.copyOf(elements, newCapacity);
 	}
 	
 	/**
@@ -214,9 +448,15 @@ public class ArrayIndexedCollection extends Collection{
 		
 		for(int i = 0; i < size; i++) {
 			if(elements[i].equals(value)) {
+				if(CollectionMetrics.ENABLED) {
+					CollectionMetrics.recordSearch(i + 1);
+				}
 				return true;
 			}
 		}
+		if(CollectionMetrics.ENABLED) {
+			CollectionMetrics.recordSearch(size);
+		}
 		return false;
 	}
 	
@@ -230,10 +470,16 @@ public class ArrayIndexedCollection extends Collection{
 	public boolean remove(Object value) {
 		for(int i = 0; i < size; i++) {
 			if(elements[i].equals(value)) {
+				if(CollectionMetrics.ENABLED) {
+					CollectionMetrics.recordSearch(i + 1);
+				}
 				remove(i);
 				return true;
 			}
 		}
+		if(CollectionMetrics.ENABLED) {
+			CollectionMetrics.recordSearch(size);
+		}
 		return false;
 	}
 	
@@ -255,5 +501,212 @@ public class ArrayIndexedCollection extends Collection{
 		
 	}
 	
+	/**
+	 * Calls Processor.process for each element of the collection, in parallel, on the common fork-join pool.
+	 * Uses the default sequential threshold; see {@link #parallelForEach(Processor, int)}.
+	 * @param processor thread-safe processor which will be called for each element.
+	 * @throws java.util.ConcurrentModificationException if the collection was modified during the traversal.
+	 */
+	public void parallelForEach(Processor processor) {
+		parallelForEach(processor, defaultThreshold());
+	}
+	
+	/**
+	 * Calls Processor.process for each element of the collection, in parallel, on the common fork-join pool.
+	 * The range of elements is split in halves until a part has at most <code>sequentialThreshold</code> elements,
+	 * and each such part is processed sequentially, in order, by one thread. Order between parts is not defined,
+	 * so the processor must be thread-safe.
+	 * <p>
+	 * The traversal works over the elements present when it started. The collection must not be modified until
+	 * the method returns, neither by the processor nor by other threads; such a modification is not guaranteed
+	 * to be seen by the traversal, and is reported by throwing ConcurrentModificationException once all elements
+	 * have been processed.
+	 * @param processor thread-safe processor which will be called for each element.
+	 * @param sequentialThreshold largest number of elements processed by one task without splitting it further.
+	 * @throws IllegalArgumentException if sequential threshold is less than 1.
+	 * @throws java.util.ConcurrentModificationException if the collection was modified during the traversal.
+	 */
+	public void parallelForEach(Processor processor, int sequentialThreshold) {
+		if(sequentialThreshold < 1) {
+			throw new IllegalArgumentException("sequentialThreshold can't be less than 1");
+		}
+		
+		long expectedModificationCount = modificationCount;
+		ForkJoinPool.commonPool().invoke(new ForEachTask(elements, 0, size, sequentialThreshold, processor));
+		if(expectedModificationCount != modificationCount) {
+			throw new ConcurrentModificationException("Collection was modified.");
+		}
+	}
+	
+	/**
+	 * Aggregates all elements of the collection into one value, in parallel, on the common fork-join pool.
+	 * Uses the default sequential threshold; see {@link #parallelReduce(Object, Reducer, int)}.
+	 * @param identity value neutral for the reducer, result for an empty collection.
+	 * @param reducer associative reducer without side effects.
+	 * @return aggregated value.
+	 * @throws java.util.ConcurrentModificationException if the collection was modified during the reduction.
+	 */
+	public Object parallelReduce(Object identity, Reducer reducer) {
+		return parallelReduce(identity, reducer, defaultThreshold());
+	}
+	
+	/**
+	 * Aggregates all elements of the collection into one value, in parallel, on the common fork-join pool.
+	 * Each part of at most <code>sequentialThreshold</code> elements is folded in order starting from
+	 * <code>identity</code>, and results of neighbouring parts are then combined with the same reducer, so the
+	 * result equals the sequential one if the reducer is associative and <code>identity</code> is neutral for it.
+	 * Behavior on concurrent modification is the same as in {@link #parallelForEach(Processor, int)}.
+	 * @param identity value neutral for the reducer, result for an empty collection.
+	 * @param reducer associative reducer without side effects.
+	 * @param sequentialThreshold largest number of elements reduced by one task without splitting it further.
+	 * @return aggregated value.
+	 * @throws IllegalArgumentException if sequential threshold is less than 1.
+	 * @throws java.util.ConcurrentModificationException if the collection was modified during the reduction.
+	 */
+	public Object parallelReduce(Object identity, Reducer reducer, int sequentialThreshold) {
+		if(sequentialThreshold < 1) {
+			throw new IllegalArgumentException("sequentialThreshold can't be less than 1");
+		}
+		
+		long expectedModificationCount = modificationCount;
+		Object result = ForkJoinPool.commonPool().invoke(
+				new ReduceTask(elements, 0, size, sequentialThreshold, identity, reducer));
+		if(expectedModificationCount != modificationCount) {
+			throw new ConcurrentModificationException("Collection was modified.");
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns sequential threshold which gives about four tasks per thread of the common pool.
+	 */
+	private int defaultThreshold() {
+		return Math.max(1, size / (ForkJoinPool.getCommonPoolParallelism() * 4));
+	}
+	
+	/**
+	 * Fork-join task which processes elements within range [from, to) of the given array.
+	 */
+	private static class ForEachTask extends RecursiveAction{
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final Object[] elements;
+		private final int from;
+		private final int to;
+		private final int threshold;
+		private final Processor processor;
+		
+		ForEachTask(Object[] elements, int from, int to, int threshold, Processor processor) {
+			this.elements = elements;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+			this.processor = processor;
+		}
+		
+		@Override
+		protected void compute() {
+			if(to - from <= threshold) {
+				for(int i = from; i < to; i++) {
+					processor.process(elements[i]);
+				}
+				return;
+			}
+			
+			int middle = (from + to) >>> 1;
+			ForEachTask left = new ForEachTask(elements, from, middle, threshold, processor);
+			left.fork();
+			new ForEachTask(elements, middle, to, threshold, processor).compute();
+			left.join();
+		}
+	}
+	
+	/**
+	 * Fork-join task which reduces elements within range [from, to) of the given array.
+	 */
+	private static class ReduceTask extends RecursiveTask<Object>{
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final Object[] elements;
+		private final int from;
+		private final int to;
+		private final int threshold;
+		private final Object identity;
+		private final Reducer reducer;
+		
+		ReduceTask(Object[] elements, int from, int to, int threshold, Object identity, Reducer reducer) {
+			this.elements = elements;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+			this.identity = identity;
+			this.reducer = reducer;
+		}
+		
+		@Override
+		protected Object compute() {
+			if(to - from <= threshold) {
+				Object result = identity;
+				for(int i = from; i < to; i++) {
+					result = reducer.reduce(result, elements[i]);
+				}
+				return result;
+			}
+			
+			int middle = (from + to) >>> 1;
+			ReduceTask left = new ReduceTask(elements, from, middle, threshold, identity, reducer);
+			left.fork();
+			Object rightResult = new ReduceTask(elements, middle, to, threshold, identity, reducer).compute();
+			return reducer.reduce(left.join(), rightResult);
+		}
+	}
+	
+	/**
+	 * Creates a new elements getter over this collection. Each step of the getter is O(1).
+	 */
+	@Override
+	public ElementsGetter createElementsGetter() {
+		return new ArrayElementsGetter();
+	}
+	
+	/**
+	 * Elements getter which walks the underlying array by index.
+	 */
+	private class ArrayElementsGetter extends ElementsGetter{
+		
+		/**
+		 * index of the next element to be returned.
+		 */
+		private int current;
+		
+		/**
+		 * modification count of the collection at the time the getter was created or last reset.
+		 */
+		private long expectedModificationCount = modificationCount;
+		
+		@Override
+		public boolean hasNext() {
+			if(expectedModificationCount != modificationCount) {
+				throw new ConcurrentModificationException("Collection was modified.");
+			}
+			return current < size;
+		}
+		
+		@Override
+		public Object next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException("No more elements.");
+			}
+			return elements[current++];
+		}
+		
+		@Override
+		public void reset() {
+			current = 0;
+			expectedModificationCount = modificationCount;
+		}
+	}
 	
 }
@@ -0,0 +1,746 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * Indexed collection backed by an order-statistic B+ tree, meant for very large collections.
+ * Elements are kept in leaves holding up to <code>fanOut</code> elements each, and inner nodes hold up to
+ * <code>fanOut</code> children together with the number of elements below each child. Positional operations
+ * walk from the root to a leaf using these counts, so <code>get</code>, <code>insert</code> and
+ * <code>remove(int)</code> take O(log n) wherever the position is.
+ * <p>
+ * Leaves are linked to each other, so <code>forEach</code>, <code>toArray</code> and elements getters walk the
+ * leaves one after another and read each leaf's array sequentially. Fan-out is tunable: small nodes make
+ * updates cheaper, large nodes make the tree lower and sequential walks longer. With compressed references,
+ * a fan-out of 16 makes a leaf's array a single 64-byte cache line.
+ * <p>
+ * Adding at the end of the collection fills leaves completely, other insertions leave nodes at least half full.
+ * Permits duplicate elements but not <code>null</code> references.
+ *
+ * @author Marko Benačić
+ *
+ */
+public class BPlusTreeIndexedCollection extends Collection {
+
+	/**
+	 * Fan-out used if none is given.
+	 */
+	public static final int DEFAULT_FAN_OUT = 32;
+
+	/**
+	 * Smallest allowed fan-out.
+	 */
+	private static final int MIN_FAN_OUT = 4;
+
+	/**
+	 * Largest number of elements in a leaf and children of an inner node.
+	 */
+	private final int fanOut;
+
+	/**
+	 * Smallest number of elements in a leaf and children of an inner node, other than the root.
+	 */
+	private final int minimum;
+
+	/**
+	 * Root of the tree, a leaf while the collection fits in one.
+	 */
+	private Node root;
+
+	/**
+	 * Leftmost leaf, where sequential walks start.
+	 */
+	private Leaf firstLeaf;
+
+	/**
+	 * Number of elements in the collection.
+	 */
+	private int size;
+
+	/**
+	 * Number of structural modifications (insertions, removals and clearing) of the collection.
+	 * Used by elements getters to detect that the collection was changed while they were used.
+	 */
+	private long modificationCount;
+
+	/**
+	 * Node of the tree.
+	 */
+	private static abstract class Node {
+		/**
+		 * Returns the number of elements in the subtree.
+		 */
+		abstract int size();
+	}
+
+	/**
+	 * Leaf holding elements, linked to its neighbours.
+	 */
+	private static class Leaf extends Node {
+		final Object[] values;
+		int count;
+		Leaf next;
+		Leaf previous;
+
+		Leaf(int capacity) {
+			values = new Object[capacity];
+		}
+
+		@Override
+		int size() {
+			return count;
+		}
+	}
+
+	/**
+	 * Inner node holding children and the number of elements below each of them. Arrays have one spare slot, so
+	 * a child can be added before the node is split.
+	 */
+	private static class Branch extends Node {
+		final Node[] children;
+		final int[] counts;
+		int childCount;
+		int total;
+
+		Branch(int fanOut) {
+			children = new Node[fanOut + 1];
+			counts = new int[fanOut + 1];
+		}
+
+		@Override
+		int size() {
+			return total;
+		}
+	}
+
+	/**
+	 * Creates an empty collection with the default fan-out.
+	 */
+	public BPlusTreeIndexedCollection() {
+		this(DEFAULT_FAN_OUT);
+	}
+
+	/**
+	 * Creates an empty collection with the given fan-out.
+	 * @param fanOut largest number of elements in a leaf and of children of an inner node.
+	 * @throws IllegalArgumentException if fan-out is less than 4.
+	 */
+	public BPlusTreeIndexedCollection(int fanOut) {
+		if(fanOut < MIN_FAN_OUT) {
+			throw new IllegalArgumentException("fanOut can't be less than " + MIN_FAN_OUT);
+		}
+		this.fanOut = fanOut;
+		this.minimum = fanOut / 2;
+		this.firstLeaf = new Leaf(fanOut);
+		this.root = firstLeaf;
+	}
+
+	/**
+	 * Creates a collection which is a copy of given collection, with the default fan-out.
+	 * @param other collection to be copied.
+	 * @throws NullPointerException if given collection is <code>null</code>.
+	 */
+	public BPlusTreeIndexedCollection(Collection other) {
+		this(DEFAULT_FAN_OUT);
+		if(other == null) {
+			throw new NullPointerException("Given collection can't be null");
+		}
+		addAll(other);
+	}
+
+	/**
+	 * Adds given object at the end of the collection. Complexity O(log n).
+	 * @param value object to be added to the collection.
+	 * @throws NullPointerException if given value is <code>null</code>.
+	 */
+	@Override
+	public void add(Object value) {
+		if(value == null) {
+			throw new NullPointerException("Value can not be null!");
+		}
+		insert(value, size);
+	}
+
+	/**
+	 * Returns object at the index position in the collection. Complexity O(log n).
+	 * @param index position in the collection from which the object will be retrieved.
+	 * @return object at indexed position
+	 * @throws IndexOutOfBoundsException if index is not within [0,size-1].
+	 */
+	public Object get(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index must be within [0, size - 1]");
+		}
+
+		Node node = root;
+		while(node instanceof Branch) {
+			Branch branch = (Branch) node;
+			int i = 0;
+			while(index >= branch.counts[i]) {
+				index -= branch.counts[i];
+				i++;
+			}
+			node = branch.children[i];
+		}
+		return ((Leaf) node).values[index];
+	}
+
+	/**
+	 * Inserts the given value at the given position in the collection. Complexity O(log n).
+	 * @param value Object to be inserted in the collection
+	 * @param position position at which the value will be inserted, must be within [0,size] (inclusive)
+	 * @throws NullPointerException if given value is <code>null</code>.
+	 * @throws IndexOutOfBoundsException if index is not within [0,size] (inclusive)
+	 */
+	public void insert(Object value, int position) {
+		if(value == null) {
+			throw new NullPointerException("Value can not be null!");
+		}
+		if(position < 0 || position > size) {
+			throw new IndexOutOfBoundsException("Index must be within [0,size]");
+		}
+
+		Node split = insert(root, position, value, true);
+		if(split != null) {
+			Branch newRoot = new Branch(fanOut);
+			newRoot.children[0] = root;
+			newRoot.counts[0] = root.size();
+			newRoot.children[1] = split;
+			newRoot.counts[1] = split.size();
+			newRoot.childCount = 2;
+			newRoot.total = size + 1;
+			root = newRoot;
+		}
+		size++;
+		modificationCount++;
+	}
+
+	/**
+	 * Removes element from specified index from collection. Complexity O(log n).
+	 * @param index position from which the element must be removed.
+	 * @throws IndexOutOfBoundsException if index is not within [0, size-1]
+	 */
+	public void remove(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index must be within [0,size-1]");
+		}
+
+		remove(root, index);
+		while(root instanceof Branch && ((Branch) root).childCount == 1) {
+			root = ((Branch) root).children[0];
+		}
+		size--;
+		modificationCount++;
+	}
+
+	/**
+	 * Returns index within the collection of given value. Search is based on equals method. Complexity O(n).
+	 * @param value element that we are searching for in collection.
+	 * @return index of given element, or -1 if element is not found.
+	 */
+	public int indexOf(Object value) {
+		int index = 0;
+		for(Leaf leaf = firstLeaf; leaf != null; leaf = leaf.next) {
+			for(int i = 0; i < leaf.count; i++) {
+				if(leaf.values[i].equals(value)) {
+					return index + i;
+				}
+			}
+			index += leaf.count;
+		}
+		return -1;
+	}
+
+	@Override
+	public boolean contains(Object value) {
+		return indexOf(value) != -1;
+	}
+
+	/**
+	 * Checks if the collection has a given element determined by equals method.
+	 * If it does, removes only one recurrence of it.
+	 */
+	@Override
+	public boolean remove(Object value) {
+		int index = indexOf(value);
+		if(index == -1) {
+			return false;
+		}
+		remove(index);
+		return true;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all elements from the collection.
+	 */
+	@Override
+	public void clear() {
+		firstLeaf = new Leaf(fanOut);
+		root = firstLeaf;
+		size = 0;
+		modificationCount++;
+	}
+
+	/**
+	 * Removes all elements which satisfy the given tester in a single walk along the linked leaves. Each kept
+	 * element after the first removed one is moved at most once, into the earliest free slot, so that they end
+	 * up packed in full leaves; leaves left empty are dropped and inner nodes are rebuilt bottom-up from the
+	 * remaining leaves. If the tester throws, elements tested so far are removed and the rest are kept.
+	 * Complexity O(n).
+	 * @param tester Tester deciding which elements are removed.
+	 * @return <code>true</code> if any element was removed, <code>false</code> otherwise.
+	 * @throws NullPointerException if given tester is <code>null</code>.
+	 */
+	@Override
+	public boolean removeIf(Tester tester) {
+		if(tester == null) {
+			throw new NullPointerException("Tester can not be null!");
+		}
+
+		// write position never overtakes read position, because no leaf holds more than fanOut elements
+		Leaf writeLeaf = firstLeaf;
+		int writeOffset = 0;
+		Leaf firstWritten = null;
+		int removed = 0;
+		Leaf leaf = firstLeaf;
+		int i = 0;
+		try {
+			for(; leaf != null; leaf = leaf.next, i = 0) {
+				Object[] values = leaf.values;
+				for(int count = leaf.count; i < count; i++) {
+					Object value = values[i];
+					if(tester.test(value)) {
+						if(removed++ == 0) {
+							firstWritten = writeLeaf;
+						}
+						continue;
+					}
+					if(removed == 0) {
+						// nothing is moved before the first removal
+						writeLeaf = leaf;
+						writeOffset = i + 1;
+						continue;
+					}
+					if(writeOffset == fanOut) {
+						writeLeaf = writeLeaf.next;
+						writeOffset = 0;
+					}
+					writeLeaf.values[writeOffset++] = value;
+				}
+			}
+		}finally {
+			if(removed > 0) {
+				// if the tester threw, keep the untested tail
+				for(; leaf != null; leaf = leaf.next, i = 0) {
+					for(int count = leaf.count; i < count; i++) {
+						if(writeOffset == fanOut) {
+							writeLeaf = writeLeaf.next;
+							writeOffset = 0;
+						}
+						writeLeaf.values[writeOffset++] = leaf.values[i];
+					}
+				}
+				rebuild(firstWritten, writeLeaf, writeOffset);
+				size -= removed;
+				modificationCount++;
+			}
+		}
+		return removed > 0;
+	}
+
+	/**
+	 * Allocates a new array filled with this collections content, copying each leaf with a single block copy.
+	 */
+	@Override
+	public Object[] toArray() {
+		Object[] array = new Object[size];
+		int index = 0;
+		for(Leaf leaf = firstLeaf; leaf != null; leaf = leaf.next) {
+			System.arraycopy(leaf.values, 0, array, index, leaf.count);
+			index += leaf.count;
+		}
+		return array;
+	}
+
+	@Override
+	public void forEach(Processor processor) {
+		for(Leaf leaf = firstLeaf; leaf != null; leaf = leaf.next) {
+			Object[] values = leaf.values;
+			for(int i = 0, count = leaf.count; i < count; i++) {
+				processor.process(values[i]);
+			}
+		}
+	}
+
+	/**
+	 * Inserts value at given index of the subtree.
+	 * @param rightmost whether the subtree is on the rightmost path of the tree.
+	 * @return new right sibling if the node was split, <code>null</code> otherwise.
+	 */
+	private Node insert(Node node, int index, Object value, boolean rightmost) {
+		if(node instanceof Leaf) {
+			return insertIntoLeaf((Leaf) node, index, value, rightmost);
+		}
+
+		Branch branch = (Branch) node;
+		int i = 0;
+		while(i < branch.childCount - 1 && index >= branch.counts[i]) {
+			index -= branch.counts[i];
+			i++;
+		}
+		Node split = insert(branch.children[i], index, value, rightmost && i == branch.childCount - 1);
+		branch.total++;
+		if(split == null) {
+			branch.counts[i]++;
+			return null;
+		}
+
+		branch.counts[i] = branch.children[i].size();
+		System.arraycopy(branch.children, i + 1, branch.children, i + 2, branch.childCount - i - 1);
+		System.arraycopy(branch.counts, i + 1, branch.counts, i + 2, branch.childCount - i - 1);
+		branch.children[i + 1] = split;
+		branch.counts[i + 1] = split.size();
+		branch.childCount++;
+		if(branch.childCount <= fanOut) {
+			return null;
+		}
+
+		int leftCount = branch.childCount / 2;
+		Branch right = new Branch(fanOut);
+		right.childCount = branch.childCount - leftCount;
+		System.arraycopy(branch.children, leftCount, right.children, 0, right.childCount);
+		System.arraycopy(branch.counts, leftCount, right.counts, 0, right.childCount);
+		for(int j = leftCount; j < branch.childCount; j++) {
+			right.total += branch.counts[j];
+			branch.children[j] = null;
+		}
+		branch.childCount = leftCount;
+		branch.total -= right.total;
+		return right;
+	}
+
+	/**
+	 * Inserts value at given index of the leaf, splitting the leaf if it is full.
+	 * @return new right sibling if the leaf was split, <code>null</code> otherwise.
+	 */
+	private Leaf insertIntoLeaf(Leaf leaf, int index, Object value, boolean rightmost) {
+		if(leaf.count < fanOut) {
+			System.arraycopy(leaf.values, index, leaf.values, index + 1, leaf.count - index);
+			leaf.values[index] = value;
+			leaf.count++;
+			return null;
+		}
+
+		Leaf right = new Leaf(fanOut);
+		right.next = leaf.next;
+		right.previous = leaf;
+		if(leaf.next != null) {
+			leaf.next.previous = right;
+		}
+		leaf.next = right;
+
+		// appending keeps left leaves full, any other insertion splits in half
+		int leftCount = (rightmost && index == fanOut) ? fanOut : (fanOut + 1) / 2;
+		if(index < leftCount) {
+			int moved = fanOut - leftCount + 1;
+			System.arraycopy(leaf.values, leftCount - 1, right.values, 0, moved);
+			clear(leaf, leftCount - 1);
+			right.count = moved;
+			insertIntoLeaf(leaf, index, value, false);
+		}else {
+			int moved = fanOut - leftCount;
+			System.arraycopy(leaf.values, leftCount, right.values, 0, moved);
+			clear(leaf, leftCount);
+			right.count = moved;
+			insertIntoLeaf(right, index - leftCount, value, false);
+		}
+		return right;
+	}
+
+	/**
+	 * Finishes compaction of the leaves: leaves from <code>firstWritten</code> up to <code>lastLeaf</code> are
+	 * full, <code>lastLeaf</code> holds <code>lastCount</code> elements and the leaves after it are dropped.
+	 * The last leaf is then balanced with its predecessor, and inner nodes are built over the leaves.
+	 */
+	private void rebuild(Leaf firstWritten, Leaf lastLeaf, int lastCount) {
+		for(Leaf leaf = firstWritten; leaf != lastLeaf; leaf = leaf.next) {
+			leaf.count = fanOut;
+		}
+		clear(lastLeaf, lastCount);
+		lastLeaf.next = null;
+
+		Leaf previous = lastLeaf.previous;
+		if(previous != null && lastLeaf.count < minimum) {
+			int total = previous.count + lastLeaf.count;
+			if(total <= fanOut) {
+				System.arraycopy(lastLeaf.values, 0, previous.values, previous.count, lastLeaf.count);
+				previous.count = total;
+				previous.next = null;
+			}else {
+				int leftTarget = total / 2;
+				int moved = previous.count - leftTarget;
+				System.arraycopy(lastLeaf.values, 0, lastLeaf.values, moved, lastLeaf.count);
+				System.arraycopy(previous.values, leftTarget, lastLeaf.values, 0, moved);
+				clear(previous, leftTarget);
+				lastLeaf.count += moved;
+			}
+		}
+
+		int leafCount = 0;
+		for(Leaf leaf = firstLeaf; leaf != null; leaf = leaf.next) {
+			leafCount++;
+		}
+		Node[] nodes = new Node[leafCount];
+		int index = 0;
+		for(Leaf leaf = firstLeaf; leaf != null; leaf = leaf.next) {
+			nodes[index++] = leaf;
+		}
+		root = buildLevels(nodes, leafCount);
+	}
+
+	/**
+	 * Builds inner nodes bottom-up over given nodes of one level, filling each inner node completely except the
+	 * last two, which share their children so that both have at least the minimum.
+	 * @return root of the built tree.
+	 */
+	private Node buildLevels(Node[] nodes, int count) {
+		while(count > 1) {
+			int groups = (count + fanOut - 1) / fanOut;
+			Node[] parents = new Node[groups];
+			int start = 0;
+			for(int g = 0; g < groups; g++) {
+				int n = Math.min(fanOut, count - start);
+				int rest = count - start;
+				if(g == groups - 2 && rest - fanOut < minimum) {
+					n = rest / 2;
+				}
+				Branch branch = new Branch(fanOut);
+				for(int j = 0; j < n; j++) {
+					Node child = nodes[start + j];
+					branch.children[j] = child;
+					branch.counts[j] = child.size();
+					branch.total += branch.counts[j];
+				}
+				branch.childCount = n;
+				parents[g] = branch;
+				start += n;
+			}
+			nodes = parents;
+			count = groups;
+		}
+		return nodes[0];
+	}
+
+	/**
+	 * Removes elements of the leaf from given index to its end.
+	 */
+	private static void clear(Leaf leaf, int from) {
+		for(int i = from; i < leaf.count; i++) {
+			leaf.values[i] = null;
+		}
+		leaf.count = from;
+	}
+
+	/**
+	 * Removes the element at given index of the subtree, rebalancing children which drop below the minimum.
+	 */
+	private void remove(Node node, int index) {
+		if(node instanceof Leaf) {
+			Leaf leaf = (Leaf) node;
+			System.arraycopy(leaf.values, index + 1, leaf.values, index, leaf.count - index - 1);
+			leaf.values[--leaf.count] = null;
+			return;
+		}
+
+		Branch branch = (Branch) node;
+		int i = 0;
+		while(index >= branch.counts[i]) {
+			index -= branch.counts[i];
+			i++;
+		}
+		Node child = branch.children[i];
+		remove(child, index);
+		branch.counts[i]--;
+		branch.total--;
+
+		int childSize = child instanceof Leaf ? ((Leaf) child).count : ((Branch) child).childCount;
+		if(childSize < minimum) {
+			rebalance(branch, i);
+		}
+	}
+
+	/**
+	 * Fixes the underflow of the child at given index by merging it with a neighbour, or by moving elements
+	 * from the neighbour if both do not fit in one node.
+	 */
+	private void rebalance(Branch branch, int i) {
+		int l = i > 0 ? i - 1 : i;
+		int r = l + 1;
+
+		if(branch.children[l] instanceof Leaf) {
+			Leaf left = (Leaf) branch.children[l];
+			Leaf right = (Leaf) branch.children[r];
+			int total = left.count + right.count;
+			if(total <= fanOut) {
+				System.arraycopy(right.values, 0, left.values, left.count, right.count);
+				left.count = total;
+				left.next = right.next;
+				if(right.next != null) {
+					right.next.previous = left;
+				}
+				removeChild(branch, r);
+			}else {
+				int leftTarget = total / 2;
+				if(left.count > leftTarget) {
+					int moved = left.count - leftTarget;
+					System.arraycopy(right.values, 0, right.values, moved, right.count);
+					System.arraycopy(left.values, leftTarget, right.values, 0, moved);
+					clear(left, leftTarget);
+					right.count += moved;
+				}else {
+					int moved = leftTarget - left.count;
+					System.arraycopy(right.values, 0, left.values, left.count, moved);
+					left.count = leftTarget;
+					System.arraycopy(right.values, moved, right.values, 0, right.count - moved);
+					clear(right, right.count - moved);
+				}
+				branch.counts[r] = right.count;
+			}
+			branch.counts[l] = left.count;
+			return;
+		}
+
+		Branch left = (Branch) branch.children[l];
+		Branch right = (Branch) branch.children[r];
+		int total = left.childCount + right.childCount;
+		if(total <= fanOut) {
+			System.arraycopy(right.children, 0, left.children, left.childCount, right.childCount);
+			System.arraycopy(right.counts, 0, left.counts, left.childCount, right.childCount);
+			left.childCount = total;
+			left.total += right.total;
+			removeChild(branch, r);
+		}else {
+			int leftTarget = total / 2;
+			if(left.childCount > leftTarget) {
+				int moved = left.childCount - leftTarget;
+				System.arraycopy(right.children, 0, right.children, moved, right.childCount);
+				System.arraycopy(right.counts, 0, right.counts, moved, right.childCount);
+				System.arraycopy(left.children, leftTarget, right.children, 0, moved);
+				System.arraycopy(left.counts, leftTarget, right.counts, 0, moved);
+				int movedTotal = 0;
+				for(int j = leftTarget; j < left.childCount; j++) {
+					movedTotal += left.counts[j];
+					left.children[j] = null;
+				}
+				left.childCount = leftTarget;
+				right.childCount += moved;
+				left.total -= movedTotal;
+				right.total += movedTotal;
+			}else {
+				int moved = leftTarget - left.childCount;
+				System.arraycopy(right.children, 0, left.children, left.childCount, moved);
+				System.arraycopy(right.counts, 0, left.counts, left.childCount, moved);
+				int movedTotal = 0;
+				for(int j = 0; j < moved; j++) {
+					movedTotal += right.counts[j];
+				}
+				System.arraycopy(right.children, moved, right.children, 0, right.childCount - moved);
+				System.arraycopy(right.counts, moved, right.counts, 0, right.childCount - moved);
+				for(int j = right.childCount - moved; j < right.childCount; j++) {
+					right.children[j] = null;
+				}
+				left.childCount = leftTarget;
+				right.childCount -= moved;
+				left.total += movedTotal;
+				right.total -= movedTotal;
+			}
+			branch.counts[r] = right.total;
+		}
+		branch.counts[l] = left.total;
+	}
+
+	/**
+	 * Removes the child at given index from the branch.
+	 */
+	private static void removeChild(Branch branch, int index) {
+		System.arraycopy(branch.children, index + 1, branch.children, index, branch.childCount - index - 1);
+		System.arraycopy(branch.counts, index + 1, branch.counts, index, branch.childCount - index - 1);
+		branch.childCount--;
+		branch.children[branch.childCount] = null;
+	}
+
+	/**
+	 * Creates a new elements getter which walks the linked leaves. Each step of the getter is O(1).
+	 */
+	@Override
+	public ElementsGetter createElementsGetter() {
+		return new LeafElementsGetter();
+	}
+
+	/**
+	 * Elements getter which walks the linked leaves.
+	 */
+	private class LeafElementsGetter extends ElementsGetter {
+
+		/**
+		 * leaf holding the next element to be returned.
+		 */
+		private Leaf leaf = firstLeaf;
+
+		/**
+		 * index of the next element within its leaf.
+		 */
+		private int offset;
+
+		/**
+		 * number of elements returned so far.
+		 */
+		private int returned;
+
+		/**
+		 * modification count of the collection at the time the getter was created or last reset.
+		 */
+		private long expectedModificationCount = modificationCount;
+
+		@Override
+		public boolean hasNext() {
+			if(expectedModificationCount != modificationCount) {
+				throw new ConcurrentModificationException("Collection was modified.");
+			}
+			return returned < size;
+		}
+
+		@Override
+		public Object next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException("No more elements.");
+			}
+			if(offset == leaf.count) {
+				leaf = leaf.next;
+				offset = 0;
+			}
+			returned++;
+			return leaf.values[offset++];
+		}
+
+		@Override
+		public void reset() {
+			leaf = firstLeaf;
+			offset = 0;
+			returned = 0;
+			expectedModificationCount = modificationCount;
+		}
+	}
+
+}
@@ -0,0 +1,559 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * Tiered vector implementation of an indexed collection. Elements are kept in a sequence of fixed-capacity
+ * chunks, so inserting or removing an element shifts only the elements of one chunk, and finding an element
+ * by index skips whole chunks at a time. Chunk capacity follows the square root of the size of the collection,
+ * which makes <code>get</code>, <code>insert</code> and <code>remove</code> at any position O(sqrt n).
+ * Permits duplicate elements but not <code>null</code> references.
+ * @author Marko Benačić
+ *
+ */
+public class ChunkedArrayIndexedCollection extends Collection{
+
+	/**
+	 * Smallest capacity of one chunk. Must be a power of two.
+	 */
+	private static final int MIN_CHUNK_CAPACITY = 16;
+
+	/**
+	 * Number of elements in the collection.
+	 */
+	private int size;
+
+	/**
+	 * Number of structural modifications (insertions, removals and clearing) of the collection.
+	 * Used by elements getters to detect that the collection was changed while they were used.
+	 */
+	private long modificationCount;
+
+	/**
+	 * Chunks holding elements, only first <code>chunkCount</code> are used.
+	 */
+	private Object[][] chunks;
+
+	/**
+	 * Number of elements in each used chunk.
+	 */
+	private int[] chunkSizes;
+
+	/**
+	 * Number of used chunks.
+	 */
+	private int chunkCount;
+
+	/**
+	 * Capacity of every chunk, always a power of two.
+	 */
+	private int chunkCapacity;
+
+	/**
+	 * Chunk found by the last lookup, or -1. Makes sequential access by index O(1).
+	 */
+	private int cachedChunk;
+
+	/**
+	 * Index of the first element of <code>cachedChunk</code>.
+	 */
+	private int cachedChunkStart;
+
+	/**
+	 * Default constructor, creates empty collection.
+	 */
+	public ChunkedArrayIndexedCollection() {
+		this.chunkCapacity = MIN_CHUNK_CAPACITY;
+		this.chunks = new Object[4][];
+		this.chunkSizes = new int[4];
+		this.chunkCount = 0;
+		this.size = 0;
+		this.cachedChunk = -1;
+	}
+
+	/**
+	 * Creates a new collection and copies elements of the other collection into the new one.
+	 * @param other collection which elements will be copied into new collection.
+	 * @throws NullPointerException if given collection is null.
+	 */
+	public ChunkedArrayIndexedCollection(Collection other) {
+		this();
+		if(other == null) {
+			throw new NullPointerException("Given collection can't be null");
+		}
+		addAll(other);
+	}
+
+	/**
+	 * Adds the given object at the end of collection. Complexity O(1) amortized.
+	 * @throws NullPointerException if given value is <code>null</code>.
+	 */
+	@Override
+	public void add(Object value) {
+		insert(value, size);
+	}
+
+	/**
+	 * retrieves object from collection at the given index. Complexity O(sqrt n), O(1) for sequential access.
+	 * @param index index from which the element will be retrieved;
+	 * @return Object at given index in the collection.
+	 * @throws IndexOutOfBoundsException if given index is not within range [0, size - 1].
+	 */
+	public Object get(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("given index must be within range [0,size-1]");
+		}
+
+		int chunk = locate(index);
+		return chunks[chunk][index - cachedChunkStart];
+	}
+
+	/**
+	 * Removes all elements from the collection.
+	 */
+	@Override
+	public void clear() {
+		chunkCapacity = MIN_CHUNK_CAPACITY;
+		chunks = new Object[4][];
+		chunkSizes = new int[4];
+		chunkCount = 0;
+		size = 0;
+		modificationCount++;
+		cachedChunk = -1;
+	}
+
+	/**
+	 * Insert value at given position in the collection. Complexity O(sqrt n).
+	 * @param value element to be inserted
+	 * @param position position in collection at which the element is inserted.
+	 * @throws NullPointerException if given value is <code>null</code>.
+	 * @throws IndexOutOfBoundsException if position is not within range [0, size].
+	 */
+	public void insert(Object value, int position) {
+		if(value == null) {
+			throw new NullPointerException("Value can not be null!");
+		}
+		if(position < 0 || position > size) {
+			throw new IndexOutOfBoundsException("Position must be within range [0,size]");
+		}
+
+		if(size + 1 > 2 * chunkCapacity * chunkCapacity) {
+			repack(chunkCapacity * 2);
+		}
+
+		int chunk;
+		int offset;
+		if(chunkCount == 0) {
+			insertChunk(0);
+			chunk = 0;
+			offset = 0;
+		}else if(position == size) {
+			chunk = chunkCount - 1;
+			offset = chunkSizes[chunk];
+		}else {
+			chunk = locate(position);
+			offset = position - cachedChunkStart;
+		}
+
+		if(chunkSizes[chunk] == chunkCapacity) {
+			if(offset == chunkCapacity) {
+				// appending after the full last chunk, start a new one instead of splitting
+				insertChunk(chunk + 1);
+				chunk++;
+				offset = 0;
+			}else {
+				split(chunk);
+				int half = chunkSizes[chunk];
+				if(offset > half) {
+					chunk++;
+					offset -= half;
+				}
+			}
+		}
+
+		Object[] target = chunks[chunk];
+		int chunkSize = chunkSizes[chunk];
+		System.arraycopy(target, offset, target, offset + 1, chunkSize - offset);
+		target[offset] = value;
+		chunkSizes[chunk]++;
+		size++;
+		modificationCount++;
+		cachedChunk = -1;
+	}
+
+	/**
+	 * removes element from collection at the given index. Complexity O(sqrt n).
+	 * @param index position from which the element is removed.
+	 * @throws IndexOutOfBoundsException if given index is not within range [0, size - 1].
+	 */
+	public void remove(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index must be within range [0, size - 1]");
+		}
+
+		int chunk = locate(index);
+		int offset = index - cachedChunkStart;
+		Object[] target = chunks[chunk];
+		int chunkSize = chunkSizes[chunk];
+		System.arraycopy(target, offset + 1, target, offset, chunkSize - offset - 1);
+		target[chunkSize - 1] = null;
+		chunkSizes[chunk]--;
+		size--;
+		modificationCount++;
+		cachedChunk = -1;
+
+		if(chunkSizes[chunk] == 0) {
+			removeChunk(chunk);
+		}else if(chunk + 1 < chunkCount && chunkSizes[chunk] + chunkSizes[chunk + 1] <= chunkCapacity / 2) {
+			merge(chunk);
+		}else if(chunk > 0 && chunkSizes[chunk - 1] + chunkSizes[chunk] <= chunkCapacity / 2) {
+			merge(chunk - 1);
+		}
+
+		if(chunkCapacity > MIN_CHUNK_CAPACITY && size < chunkCapacity * chunkCapacity / 8) {
+			repack(chunkCapacity / 2);
+		}
+	}
+
+	/**
+	 * returns index within the collection of given value. Search is based on equals method. Complexity O(n).
+	 * @param value element that we are searching for in collection.
+	 * @return index of given element. If element is not found returns -1.
+	 * @throws IllegalArgumentException if given value is <code>null</code>.
+	 */
+	public int indexOf(Object value) {
+		if(value == null) {
+			throw new IllegalArgumentException("given value can not be null!");
+		}
+
+		int start = 0;
+		for(int c = 0; c < chunkCount; c++) {
+			Object[] chunk = chunks[c];
+			for(int i = 0, n = chunkSizes[c]; i < n; i++) {
+				if(chunk[i].equals(value)) {
+					return start + i;
+				}
+			}
+			start += chunkSizes[c];
+		}
+		return -1;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the number of elements in the collection.
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks whether the collections contains the given element.
+	 * @param value Object value to search for in the collection.
+	 * @return <code>true</code> if given element is found, <code>false</code> otherwise.
+	 */
+	@Override
+	public boolean contains(Object value) {
+		return value != null && indexOf(value) != -1;
+	}
+
+	/**
+	 * Checks if the collection has a given element determined by equals method.
+	 * If it does, removes only one recurrence of it.
+	 */
+	@Override
+	public boolean remove(Object value) {
+		if(value == null) {
+			return false;
+		}
+		int index = indexOf(value);
+		if(index == -1) {
+			return false;
+		}
+		remove(index);
+		return true;
+	}
+
+	/**
+	 * Removes all elements which satisfy the given tester in a single pass. Each kept element after the first
+	 * removed one is moved at most once, into the earliest free slot, so that they end up packed in full chunks.
+	 * Chunks left empty are dropped, and chunk capacity is reduced at once if the collection became much smaller.
+	 * If the tester throws, elements tested so far are removed and the rest are kept. Complexity O(n).
+	 * @param tester Tester deciding which elements are removed.
+	 * @return <code>true</code> if any element was removed, <code>false</code> otherwise.
+	 * @throws NullPointerException if given tester is <code>null</code>.
+	 */
+	@Override
+	public boolean removeIf(Tester tester) {
+		if(tester == null) {
+			throw new NullPointerException("Tester can not be null!");
+		}
+
+		// write position never overtakes read position, because no chunk holds more than chunkCapacity elements
+		int writeChunk = 0;
+		int writeOffset = 0;
+		int firstChunk = 0;
+		int removed = 0;
+		int c = 0;
+		int i = 0;
+		try {
+			for(; c < chunkCount; c++, i = 0) {
+				Object[] chunk = chunks[c];
+				for(int n = chunkSizes[c]; i < n; i++) {
+					Object value = chunk[i];
+					if(tester.test(value)) {
+						if(removed++ == 0) {
+							firstChunk = writeChunk;
+						}
+						continue;
+					}
+					if(removed == 0) {
+						// nothing is moved before the first removal
+						writeChunk = c;
+						writeOffset = i + 1;
+						continue;
+					}
+					if(writeOffset == chunkCapacity) {
+						writeChunk++;
+						writeOffset = 0;
+					}
+					chunks[writeChunk][writeOffset++] = value;
+				}
+			}
+		}finally {
+			if(removed > 0) {
+				// if the tester threw, keep the untested tail
+				for(; c < chunkCount; c++, i = 0) {
+					for(int n = chunkSizes[c]; i < n; i++) {
+						if(writeOffset == chunkCapacity) {
+							writeChunk++;
+							writeOffset = 0;
+						}
+						chunks[writeChunk][writeOffset++] = chunks[c][i];
+					}
+				}
+				for(int k = firstChunk; k < writeChunk; k++) {
+					chunkSizes[k] = chunkCapacity;
+				}
+				Arrays.fill(chunks[writeChunk], writeOffset, chunkCapacity, null);
+				chunkSizes[writeChunk] = writeOffset;
+				int newCount = writeOffset == 0 ? writeChunk : writeChunk + 1;
+				Arrays.fill(chunks, newCount, chunkCount, null);
+				Arrays.fill(chunkSizes, newCount, chunkCount, 0);
+				chunkCount = newCount;
+				size -= removed;
+				modificationCount++;
+				cachedChunk = -1;
+
+				int newChunkCapacity = chunkCapacity;
+				while(newChunkCapacity > MIN_CHUNK_CAPACITY && size < newChunkCapacity * newChunkCapacity / 8) {
+					newChunkCapacity /= 2;
+				}
+				if(newChunkCapacity != chunkCapacity) {
+					repack(newChunkCapacity);
+				}
+			}
+		}
+		return removed > 0;
+	}
+
+	/**
+	 * Allocates a new array filled with this collections content, and returns it.
+	 */
+	@Override
+	public Object[] toArray() {
+		Object[] result = new Object[size];
+		int start = 0;
+		for(int c = 0; c < chunkCount; c++) {
+			System.arraycopy(chunks[c], 0, result, start, chunkSizes[c]);
+			start += chunkSizes[c];
+		}
+		return result;
+	}
+
+	@Override
+	public void forEach(Processor processor) {
+		for(int c = 0; c < chunkCount; c++) {
+			Object[] chunk = chunks[c];
+			for(int i = 0, n = chunkSizes[c]; i < n; i++) {
+				processor.process(chunk[i]);
+			}
+		}
+	}
+
+	/**
+	 * Finds the chunk holding the element with given index, and stores it and its first index in the cache.
+	 * Walks from the cached chunk, or from the closer end of the collection.
+	 * @return index of the chunk.
+	 */
+	private int locate(int index) {
+		if(cachedChunk != -1 && index >= cachedChunkStart) {
+			int chunk = cachedChunk;
+			int start = cachedChunkStart;
+			if(index < start + chunkSizes[chunk]) {
+				return chunk;
+			}
+			if(index - start < size - index) {
+				while(index >= start + chunkSizes[chunk]) {
+					start += chunkSizes[chunk];
+					chunk++;
+				}
+				cachedChunk = chunk;
+				cachedChunkStart = start;
+				return chunk;
+			}
+		}
+
+		int chunk;
+		int start;
+		if(index < size - index) {
+			chunk = 0;
+			start = 0;
+			while(index >= start + chunkSizes[chunk]) {
+				start += chunkSizes[chunk];
+				chunk++;
+			}
+		}else {
+			chunk = chunkCount - 1;
+			start = size - chunkSizes[chunk];
+			while(index < start) {
+				chunk--;
+				start -= chunkSizes[chunk];
+			}
+		}
+		cachedChunk = chunk;
+		cachedChunkStart = start;
+		return chunk;
+	}
+
+	/**
+	 * Inserts a new empty chunk at given chunk position.
+	 */
+	private void insertChunk(int position) {
+		if(chunkCount == chunks.length) {
+			chunks = Arrays.copyOf(chunks, chunkCount * 2);
+			chunkSizes = Arrays.copyOf(chunkSizes, chunkCount * 2);
+		}
+		System.arraycopy(chunks, position, chunks, position + 1, chunkCount - position);
+		System.arraycopy(chunkSizes, position, chunkSizes, position + 1, chunkCount - position);
+		chunks[position] = new Object[chunkCapacity];
+		chunkSizes[position] = 0;
+		chunkCount++;
+	}
+
+	/**
+	 * Removes the chunk at given chunk position.
+	 */
+	private void removeChunk(int position) {
+		System.arraycopy(chunks, position + 1, chunks, position, chunkCount - position - 1);
+		System.arraycopy(chunkSizes, position + 1, chunkSizes, position, chunkCount - position - 1);
+		chunkCount--;
+		chunks[chunkCount] = null;
+	}
+
+	/**
+	 * Moves the upper half of a full chunk into a new chunk placed right after it.
+	 */
+	private void split(int chunk) {
+		insertChunk(chunk + 1);
+		int half = chunkSizes[chunk] / 2;
+		int moved = chunkSizes[chunk] - half;
+		System.arraycopy(chunks[chunk], half, chunks[chunk + 1], 0, moved);
+		Arrays.fill(chunks[chunk], half, chunkSizes[chunk], null);
+		chunkSizes[chunk] = half;
+		chunkSizes[chunk + 1] = moved;
+	}
+
+	/**
+	 * Moves all elements of the chunk after given one into given chunk, and removes the emptied chunk.
+	 */
+	private void merge(int chunk) {
+		System.arraycopy(chunks[chunk + 1], 0, chunks[chunk], chunkSizes[chunk], chunkSizes[chunk + 1]);
+		chunkSizes[chunk] += chunkSizes[chunk + 1];
+		removeChunk(chunk + 1);
+	}
+
+	/**
+	 * Rebuilds all chunks with the new chunk capacity, filling each chunk completely.
+	 */
+	private void repack(int newChunkCapacity) {
+		Object[] all = toArray();
+		int newCount = (size + newChunkCapacity - 1) / newChunkCapacity;
+		chunkCapacity = newChunkCapacity;
+		chunks = new Object[Math.max(4, newCount * 2)][];
+		chunkSizes = new int[chunks.length];
+		chunkCount = newCount;
+		for(int c = 0; c < newCount; c++) {
+			chunks[c] = new Object[newChunkCapacity];
+			int n = Math.min(newChunkCapacity, size - c * newChunkCapacity);
+			System.arraycopy(all, c * newChunkCapacity, chunks[c], 0, n);
+			chunkSizes[c] = n;
+		}
+		cachedChunk = -1;
+	}
+	
+	/**
+	 * Creates a new elements getter over this collection. Each step of the getter is O(1).
+	 */
+	@Override
+	public ElementsGetter createElementsGetter() {
+		return new ChunkedElementsGetter();
+	}
+	
+	/**
+	 * Elements getter which walks the chunks one after another.
+	 */
+	private class ChunkedElementsGetter extends ElementsGetter{
+		
+		/**
+		 * chunk of the next element to be returned.
+		 */
+		private int chunk;
+		
+		/**
+		 * offset within the chunk of the next element to be returned.
+		 */
+		private int offset;
+		
+		/**
+		 * modification count of the collection at the time the getter was created or last reset.
+		 */
+		private long expectedModificationCount = modificationCount;
+		
+		@Override
+		public boolean hasNext() {
+			if(expectedModificationCount != modificationCount) {
+				throw new ConcurrentModificationException("Collection was modified.");
+			}
+			return chunk < chunkCount;
+		}
+		
+		@Override
+		public Object next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException("No more elements.");
+			}
+			Object value = chunks[chunk][offset++];
+			if(offset == chunkSizes[chunk]) {
+				chunk++;
+				offset = 0;
+			}
+			return value;
+		}
+		
+		@Override
+		public void reset() {
+			chunk = 0;
+			offset = 0;
+			expectedModificationCount = modificationCount;
+		}
+	}
+
+}
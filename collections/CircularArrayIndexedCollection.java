@@ -0,0 +1,373 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * Resizable ring-buffer backed collection of objects. Elements are stored starting at a movable head offset
+ * and wrap around the end of the underlying array, so inserting and removing at both ends of the collection
+ * is O(1), while <code>get</code> stays O(1). Edits in the middle shift only the elements between the
+ * position and the closer end of the collection.
+ * Permits duplicate elements but not <code>null</code> references.
+ * @author Marko Benačić
+ *
+ */
+public class CircularArrayIndexedCollection extends Collection{
+
+	/**
+	 * default size of the underlying array. Will be used if initial capacity is not given.
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Number of elements in the collection.
+	 */
+	private int size;
+
+	/**
+	 * Number of structural modifications (insertions, removals and clearing) of the collection.
+	 * Used by elements getters to detect that the collection was changed while they were used.
+	 */
+	private long modificationCount;
+
+	/**
+	 * Position in <code>elements</code> of the element with index 0.
+	 */
+	private int head;
+
+	/**
+	 * Array containing elements of the collection. Its length is always a power of two.
+	 */
+	private Object[] elements;
+
+	/**
+	 * Default constructor. Creates an empty collection with default capacity (which is 16).
+	 */
+	public CircularArrayIndexedCollection() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty collection with at least given initial capacity.
+	 * Capacity is rounded up to the nearest power of two.
+	 * @param initialCapacity specified capacity of the collection.
+	 * @throws IllegalArgumentException if capacity is less than 1 or greater than 2^30.
+	 */
+	public CircularArrayIndexedCollection(int initialCapacity) {
+		if(initialCapacity < 1) {
+			throw new IllegalArgumentException("initialCapacity can't be less than 1");
+		}
+		if(initialCapacity > 1 << 30) {
+			throw new IllegalArgumentException("initialCapacity can't be greater than 2^30");
+		}
+
+		this.size = 0;
+		this.head = 0;
+		this.elements = new Object[initialCapacity == 1 ? 1 : Integer.highestOneBit(initialCapacity - 1) << 1];
+	}
+
+	/**
+	 * Creates a collection which is a copy of given collection.
+	 * @param other collection to be copied.
+	 * @throws NullPointerException if given collection is null.
+	 */
+	public CircularArrayIndexedCollection(Collection other) {
+		this(Math.max(DEFAULT_CAPACITY, checkNotNull(other).size()));
+		addAll(other);
+	}
+
+	/**
+	 * Adds given object at the end of the collection. Complexity O(1).
+	 * @param value object to be added to the collection.
+	 * @throws NullPointerException if given value is null.
+	 */
+	@Override
+	public void add(Object value) {
+		insert(value, size);
+	}
+
+	/**
+	 * Returns object at the index position in the collection. Complexity O(1).
+	 * @param index position in the collection from which the object will be retrieved.
+	 * @return object at indexed position
+	 * @throws IndexOutOfBoundsException if index is not within [0,size-1].
+	 */
+	public Object get(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index must be within [0, size - 1]");
+		}
+
+		return elements[slot(index)];
+	}
+
+	/**
+	 * Removes all elements from the collection. Capacity remains the same.
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(elements, null);
+		size = 0;
+		modificationCount++;
+		head = 0;
+	}
+
+	/**
+	 * insert the given value at the given position in the collection.
+	 * Complexity O(1) at both ends, otherwise O(min(position, size - position)).
+	 * @param value Object to be inserted in the collection
+	 * @param position position at which the value will be inserted, must be within [0,size] (inclusive)
+	 * @throws NullPointerException if given value is null.
+	 * @throws IndexOutOfBoundsException if index is not within [0,size] (inclusive)
+	 */
+	public void insert(Object value, int position) {
+		if(value == null) {
+			throw new NullPointerException("Value can not be null!");
+		}
+		if(position < 0 || position > size) {
+			throw new IndexOutOfBoundsException("Index must be within [0,size]");
+		}
+
+		if(size == elements.length) {
+			elements = unwrap(elements.length * 2);
+			head = 0;
+		}
+
+		int mask = elements.length - 1;
+		if(position < size - position) {
+			// front part is shorter, move it one place towards the beginning
+			head = (head - 1) & mask;
+			for(int i = 0; i < position; i++) {
+				elements[(head + i) & mask] = elements[(head + i + 1) & mask];
+			}
+		}else {
+			for(int i = size; i > position; i--) {
+				elements[(head + i) & mask] = elements[(head + i - 1) & mask];
+			}
+		}
+		elements[(head + position) & mask] = value;
+		size++;
+		modificationCount++;
+	}
+
+	/**
+	 * Removes element from specified index from collection.
+	 * Complexity O(1) at both ends, otherwise O(min(index, size - index)).
+	 * @param index position from which the element must be removed.
+	 * @throws IndexOutOfBoundsException if index is not within [0, size-1]
+	 */
+	public void remove(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index must be within [0,size-1]");
+		}
+
+		int mask = elements.length - 1;
+		if(index < size - 1 - index) {
+			// front part is shorter, move it one place towards the end
+			for(int i = index; i > 0; i--) {
+				elements[(head + i) & mask] = elements[(head + i - 1) & mask];
+			}
+			elements[head] = null;
+			head = (head + 1) & mask;
+		}else {
+			for(int i = index; i < size - 1; i++) {
+				elements[(head + i) & mask] = elements[(head + i + 1) & mask];
+			}
+			elements[(head + size - 1) & mask] = null;
+		}
+		size--;
+		modificationCount++;
+	}
+
+	/**
+	 * Returns <code>true</code> if has no elements, <code>false</code> otherwise.
+	 */
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * returns number of elements in the collection.
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns <code>true</code> if collection contains given value, <code>false</code> otherwise.
+	 * @param value object which we check whether it is in the collection.
+	 */
+	@Override
+	public boolean contains(Object value) {
+		return value != null && indexOf(value) != -1;
+	}
+
+	/**
+	 * returns index within the collection of given value. Search is based on equals method. Complexity O(n).
+	 * @param value element that we are searching for in collection.
+	 * @return index of given element. If element is not found returns -1.
+	 * @throws IllegalArgumentException if given value is <code>null</code>.
+	 */
+	public int indexOf(Object value) {
+		if(value == null) {
+			throw new IllegalArgumentException("given value can not be null!");
+		}
+
+		int mask = elements.length - 1;
+		for(int i = 0; i < size; i++) {
+			if(elements[(head + i) & mask].equals(value)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Checks if the collection has a given element determined by equals method.
+	 * If it does, removes only one recurrence of it.
+	 * @param value object to remove from collection
+	 * @return boolean value whether element was found and removed.
+	 */
+	@Override
+	public boolean remove(Object value) {
+		if(value == null) {
+			return false;
+		}
+		int index = indexOf(value);
+		if(index == -1) {
+			return false;
+		}
+		remove(index);
+		return true;
+	}
+
+	/**
+	 * Removes all elements which satisfy the given tester in a single pass around the ring, moving each kept
+	 * element at most once towards the head. If the tester throws, elements tested so far are removed and the
+	 * rest are kept. Complexity O(n).
+	 * @param tester Tester deciding which elements are removed.
+	 * @return <code>true</code> if any element was removed, <code>false</code> otherwise.
+	 * @throws NullPointerException if given tester is <code>null</code>.
+	 */
+	@Override
+	public boolean removeIf(Tester tester) {
+		if(tester == null) {
+			throw new NullPointerException("Tester can not be null!");
+		}
+
+		int mask = elements.length - 1;
+		int read = 0;
+		int write = 0;
+		try {
+			for(; read < size; read++) {
+				Object value = elements[(head + read) & mask];
+				if(!tester.test(value)) {
+					elements[(head + write++) & mask] = value;
+				}
+			}
+		}finally {
+			// if the tester threw, keep the untested tail
+			for(; read < size; read++) {
+				elements[(head + write++) & mask] = elements[(head + read) & mask];
+			}
+			if(write < size) {
+				for(int i = write; i < size; i++) {
+					elements[(head + i) & mask] = null;
+				}
+				size = write;
+				modificationCount++;
+			}
+		}
+		return read != write;
+	}
+
+	/**
+	 * Allocates a new array filled with this collections content, and returns it.
+	 */
+	@Override
+	public Object[] toArray() {
+		return unwrap(size);
+	}
+
+	@Override
+	public void forEach(Processor processor) {
+		int mask = elements.length - 1;
+		for(int i = 0; i < size; i++) {
+			processor.process(elements[(head + i) & mask]);
+		}
+	}
+
+	/**
+	 * Returns position in <code>elements</code> of the element with given index.
+	 */
+	private int slot(int index) {
+		return (head + index) & (elements.length - 1);
+	}
+
+	/**
+	 * Copies elements, in order, into the beginning of a new array of given length.
+	 */
+	private Object[] unwrap(int length) {
+		Object[] result = new Object[length];
+		int firstPart = Math.min(size, elements.length - head);
+		System.arraycopy(elements, head, result, 0, firstPart);
+		System.arraycopy(elements, 0, result, firstPart, size - firstPart);
+		return result;
+	}
+
+	private static Collection checkNotNull(Collection other) {
+		if(other == null) {
+			throw new NullPointerException("Given collection can't be null");
+		}
+		return other;
+	}
+	
+	/**
+	 * Creates a new elements getter over this collection. Each step of the getter is O(1).
+	 */
+	@Override
+	public ElementsGetter createElementsGetter() {
+		return new CircularElementsGetter();
+	}
+	
+	/**
+	 * Elements getter which walks the ring buffer from its head.
+	 */
+	private class CircularElementsGetter extends ElementsGetter{
+		
+		/**
+		 * index of the next element to be returned.
+		 */
+		private int current;
+		
+		/**
+		 * modification count of the collection at the time the getter was created or last reset.
+		 */
+		private long expectedModificationCount = modificationCount;
+		
+		@Override
+		public boolean hasNext() {
+			if(expectedModificationCount != modificationCount) {
+				throw new ConcurrentModificationException("Collection was modified.");
+			}
+			return current < size;
+		}
+		
+		@Override
+		public Object next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException("No more elements.");
+			}
+			return elements[slot(current++)];
+		}
+		
+		@Override
+		public void reset() {
+			current = 0;
+			expectedModificationCount = modificationCount;
+		}
+	}
+
+}
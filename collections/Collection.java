@@ -86,6 +86,24 @@ public class Collection {
 	public void forEach(Processor processor) {
 	}
 	
+	/**
+	 * Creates a new elements getter which returns elements of the collection one by one, in order.
+	 * In this specific class, method throws UnsupportedOperationException. Needs to be implemented.
+	 * @return new elements getter positioned at the first element of the collection.
+	 */
+	public ElementsGetter createElementsGetter() {
+		throw new UnsupportedOperationException();
+	}
+	
+	/**
+	 * Creates a lazy pipeline over the elements of this collection. Stages added to it are fused into a single
+	 * pass over the collection, made with its elements getter, when a terminal operation is called.
+	 * @return new pipeline with no stages.
+	 */
+	public Pipeline pipeline() {
+		return new Pipeline(this);
+	}
+	
 	/**
 	 * Adds into the current collection all elements from the given collection.
 	 * @param other collection from which the elements will be copied.
@@ -102,6 +120,96 @@ public class Collection {
 		other.forEach(new AddProcessor());
 	}
 	
+	/**
+	 * Removes all elements of the collection which satisfy the given tester. Remaining elements keep their order.
+	 * If the tester throws, elements it has already accepted are removed, all other elements are kept and the
+	 * exception is propagated; every implementation behaves this way.
+	 * In this specific class, elements are tested first, and then the collection is cleared and refilled with the
+	 * remaining elements. Implementations should override it with a single in-place pass.
+	 * @param tester Tester deciding which elements are removed.
+	 * @return <code>true</code> if any element was removed, <code>false</code> otherwise.
+	 * @throws NullPointerException if given tester is <code>null</code>.
+	 */
+	public boolean removeIf(Tester tester) {
+		if(tester == null) {
+			throw new NullPointerException("Tester can not be null!");
+		}
+		
+		Object[] elements = toArray();
+		boolean[] removed = new boolean[elements.length];
+		boolean anyRemoved = false;
+		try {
+			for(int i = 0; i < elements.length; i++) {
+				if(tester.test(elements[i])) {
+					removed[i] = true;
+					anyRemoved = true;
+				}
+			}
+		}finally {
+			if(anyRemoved) {
+				clear();
+				for(int i = 0; i < elements.length; i++) {
+					if(!removed[i]) {
+						add(elements[i]);
+					}
+				}
+			}
+		}
+		return anyRemoved;
+	}
+	
+	/**
+	 * Removes from this collection all elements which are contained in the given collection.
+	 * Each element is checked with <code>contains</code> of the given collection.
+	 * @param other collection of elements to be removed.
+	 * @return <code>true</code> if any element was removed, <code>false</code> otherwise.
+	 * @throws NullPointerException if given collection is <code>null</code>.
+	 */
+	public boolean removeAll(Collection other) {
+		if(other == null) {
+			throw new NullPointerException("Given collection can't be null");
+		}
+		if(other == this) {
+			boolean changed = !isEmpty();
+			clear();
+			return changed;
+		}
+		
+		class ContainedTester extends Tester {
+			@Override
+			public boolean test(Object value) {
+				return other.contains(value);
+			}
+		}
+		
+		return removeIf(new ContainedTester());
+	}
+	
+	/**
+	 * Removes from this collection all elements which are not contained in the given collection.
+	 * Each element is checked with <code>contains</code> of the given collection.
+	 * @param other collection of elements to be kept.
+	 * @return <code>true</code> if any element was removed, <code>false</code> otherwise.
+	 * @throws NullPointerException if given collection is <code>null</code>.
+	 */
+	public boolean retainAll(Collection other) {
+		if(other == null) {
+			throw new NullPointerException("Given collection can't be null");
+		}
+		if(other == this) {
+			return false;
+		}
+		
+		class NotContainedTester extends Tester {
+			@Override
+			public boolean test(Object value) {
+				return !other.contains(value);
+			}
+		}
+		
+		return removeIf(new NotContainedTester());
+	}
+	
 	/**
 	 * Removes all elements from this collection. In this specific class, method does nothing. Needs to be implemented.
 	 */
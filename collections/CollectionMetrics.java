@@ -0,0 +1,352 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Opt-in instrumentation of the hot paths of {@link ArrayIndexedCollection} and
+ * {@link LinkedListIndexedCollection}. Counts array reallocations and the bytes they copy, separately for growing
+ * and for shrinking (by <code>trimToSize</code> or auto-shrink), elements shifted by
+ * inserts and removals, nodes traversed by positional lookups, equals calls made by searches by value, and the
+ * largest size reached. Counters are global for all instances and safe to update from many threads.
+ * <p>
+ * Metrics are enabled by starting the JVM with <code>-Dhr.fer.zemris.java.custom.collections.metrics=true</code>.
+ * The switch is a <code>static final</code> constant, so when metrics are disabled the JIT compiler removes the
+ * instrumentation from the collections completely. Collected values can be read with {@link #snapshot()} or
+ * exported over JMX with {@link #registerMBean()}.
+ *
+ * @author Marko Benačić
+ *
+ */
+public final class CollectionMetrics {
+
+	/**
+	 * Name of the system property which enables metrics.
+	 */
+	public static final String ENABLED_PROPERTY = "hr.fer.zemris.java.custom.collections.metrics";
+
+	/**
+	 * <code>true</code> if metrics are collected. Instrumented code checks it before recording anything.
+	 */
+	public static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+	/**
+	 * Name under which metrics are registered with the platform MBean server.
+	 */
+	public static final String OBJECT_NAME = "hr.fer.zemris.java.custom.collections:type=CollectionMetrics";
+
+	/**
+	 * Estimated size of one reference in an array, in bytes. Assumes compressed references, the default for heaps
+	 * smaller than 32 GB.
+	 */
+	private static final int REFERENCE_SIZE = 4;
+
+	private static final LongAdder REALLOCATIONS = new LongAdder();
+	private static final LongAdder ELEMENTS_COPIED = new LongAdder();
+	private static final LongAdder SHRINKS = new LongAdder();
+	private static final LongAdder SHRINK_ELEMENTS_COPIED = new LongAdder();
+	private static final LongAdder ELEMENT_SHIFTS = new LongAdder();
+	private static final LongAdder NODE_LOOKUPS = new LongAdder();
+	private static final LongAdder NODES_TRAVERSED = new LongAdder();
+	private static final LongAdder SEARCHES = new LongAdder();
+	private static final LongAdder EQUALS_CALLS = new LongAdder();
+	private static final LongAccumulator PEAK_SIZE = new LongAccumulator(new LongBinaryOperator() {
+		@Override
+		public long applyAsLong(long left, long right) {
+			return Math.max(left, right);
+		}
+	}, 0);
+
+	/**
+	 * Immutable copy of all metrics at one moment.
+	 */
+	public static final class Snapshot {
+		private final long reallocations;
+		private final long bytesCopied;
+		private final long shrinks;
+		private final long bytesCopiedByShrinks;
+		private final long elementShifts;
+		private final long nodeLookups;
+		private final long nodesTraversed;
+		private final long searches;
+		private final long equalsCalls;
+		private final long peakSize;
+
+		private Snapshot() {
+			this.reallocations = REALLOCATIONS.sum();
+			this.bytesCopied = ELEMENTS_COPIED.sum() * REFERENCE_SIZE;
+			this.shrinks = SHRINKS.sum();
+			this.bytesCopiedByShrinks = SHRINK_ELEMENTS_COPIED.sum() * REFERENCE_SIZE;
+			this.elementShifts = ELEMENT_SHIFTS.sum();
+			this.nodeLookups = NODE_LOOKUPS.sum();
+			this.nodesTraversed = NODES_TRAVERSED.sum();
+			this.searches = SEARCHES.sum();
+			this.equalsCalls = EQUALS_CALLS.sum();
+			this.peakSize = PEAK_SIZE.get();
+		}
+
+		/**
+		 * @return number of times an array-backed collection reallocated its array to grow it.
+		 */
+		public long getReallocations() {
+			return reallocations;
+		}
+
+		/**
+		 * @return estimated number of bytes copied by reallocations which grew an array.
+		 */
+		public long getBytesCopied() {
+			return bytesCopied;
+		}
+
+		/**
+		 * @return number of times an array-backed collection reallocated its array to shrink it.
+		 */
+		public long getShrinks() {
+			return shrinks;
+		}
+
+		/**
+		 * @return estimated number of bytes copied by reallocations which shrank an array.
+		 */
+		public long getBytesCopiedByShrinks() {
+			return bytesCopiedByShrinks;
+		}
+
+		/**
+		 * @return number of element moves caused by inserting or removing in the middle of an array.
+		 */
+		public long getElementShifts() {
+			return elementShifts;
+		}
+
+		/**
+		 * @return number of positional lookups in linked collections.
+		 */
+		public long getNodeLookups() {
+			return nodeLookups;
+		}
+
+		/**
+		 * @return number of nodes traversed by positional lookups in linked collections.
+		 */
+		public long getNodesTraversed() {
+			return nodesTraversed;
+		}
+
+		/**
+		 * @return average number of nodes traversed by one positional lookup.
+		 */
+		public double getNodesTraversedPerLookup() {
+			return nodeLookups == 0 ? 0 : (double) nodesTraversed / nodeLookups;
+		}
+
+		/**
+		 * @return number of searches by value.
+		 */
+		public long getSearches() {
+			return searches;
+		}
+
+		/**
+		 * @return number of equals calls made by searches by value.
+		 */
+		public long getEqualsCalls() {
+			return equalsCalls;
+		}
+
+		/**
+		 * @return average number of equals calls made by one search by value.
+		 */
+		public double getEqualsCallsPerSearch() {
+			return searches == 0 ? 0 : (double) equalsCalls / searches;
+		}
+
+		/**
+		 * @return largest size any instrumented collection has reached.
+		 */
+		public long getPeakSize() {
+			return peakSize;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("reallocations=%d, bytesCopied=%d, shrinks=%d, bytesCopiedByShrinks=%d, "
+					+ "elementShifts=%d, nodeLookups=%d, nodesTraversed=%d (%.1f per lookup), searches=%d, "
+					+ "equalsCalls=%d (%.1f per search), peakSize=%d",
+					reallocations, bytesCopied, shrinks, bytesCopiedByShrinks, elementShifts, nodeLookups, nodesTraversed,
+					getNodesTraversedPerLookup(), searches, equalsCalls, getEqualsCallsPerSearch(), peakSize);
+		}
+	}
+
+	/**
+	 * Class is not meant to be instantiated.
+	 */
+	private CollectionMetrics() {
+	}
+
+	/**
+	 * Returns current values of all metrics.
+	 * @return snapshot of metrics.
+	 */
+	public static Snapshot snapshot() {
+		return new Snapshot();
+	}
+
+	/**
+	 * Sets all counters back to zero.
+	 */
+	public static void reset() {
+		REALLOCATIONS.reset();
+		ELEMENTS_COPIED.reset();
+		SHRINKS.reset();
+		SHRINK_ELEMENTS_COPIED.reset();
+		ELEMENT_SHIFTS.reset();
+		NODE_LOOKUPS.reset();
+		NODES_TRAVERSED.reset();
+		SEARCHES.reset();
+		EQUALS_CALLS.reset();
+		PEAK_SIZE.reset();
+	}
+
+	/**
+	 * Registers metrics with the platform MBean server under {@link #OBJECT_NAME}, unless already registered.
+	 * @throws IllegalStateException if registration fails.
+	 */
+	public static synchronized void registerMBean() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if(!server.isRegistered(name)) {
+				server.registerMBean(new MXBean(), name);
+			}
+		}catch(JMException e) {
+			throw new IllegalStateException("Can not register collection metrics.", e);
+		}
+	}
+
+	/**
+	 * Records that elements of an array were copied into a new, larger one.
+	 * @param copiedElements number of elements copied.
+	 */
+	static void recordReallocation(int copiedElements) {
+		REALLOCATIONS.increment();
+		ELEMENTS_COPIED.add(copiedElements);
+	}
+
+	/**
+	 * Records that elements of an array were copied into a new, smaller one.
+	 * @param copiedElements number of elements copied.
+	 */
+	static void recordShrink(int copiedElements) {
+		SHRINKS.increment();
+		SHRINK_ELEMENTS_COPIED.add(copiedElements);
+	}
+
+	/**
+	 * Records that given number of elements was moved by one place.
+	 * @param shiftedElements number of elements moved.
+	 */
+	static void recordShift(int shiftedElements) {
+		ELEMENT_SHIFTS.add(shiftedElements);
+	}
+
+	/**
+	 * Records one positional lookup in a linked collection.
+	 * @param traversedNodes number of nodes walked over.
+	 */
+	static void recordLookup(int traversedNodes) {
+		NODE_LOOKUPS.increment();
+		NODES_TRAVERSED.add(traversedNodes);
+	}
+
+	/**
+	 * Records one search by value.
+	 * @param equalsCalls number of equals calls made by the search.
+	 */
+	static void recordSearch(int equalsCalls) {
+		SEARCHES.increment();
+		EQUALS_CALLS.add(equalsCalls);
+	}
+
+	/**
+	 * Records the current size of a collection which has just grown.
+	 * @param size new size of the collection.
+	 */
+	static void recordSize(int size) {
+		PEAK_SIZE.accumulate(size);
+	}
+
+	/**
+	 * JMX view of the metrics.
+	 */
+	private static class MXBean implements CollectionMetricsMXBean {
+
+		@Override
+		public boolean isEnabled() {
+			return ENABLED;
+		}
+
+		@Override
+		public long getReallocations() {
+			return REALLOCATIONS.sum();
+		}
+
+		@Override
+		public long getBytesCopied() {
+			return ELEMENTS_COPIED.sum() * REFERENCE_SIZE;
+		}
+
+		@Override
+		public long getShrinks() {
+			return SHRINKS.sum();
+		}
+
+		@Override
+		public long getBytesCopiedByShrinks() {
+			return SHRINK_ELEMENTS_COPIED.sum() * REFERENCE_SIZE;
+		}
+
+		@Override
+		public long getElementShifts() {
+			return ELEMENT_SHIFTS.sum();
+		}
+
+		@Override
+		public long getNodeLookups() {
+			return NODE_LOOKUPS.sum();
+		}
+
+		@Override
+		public long getNodesTraversed() {
+			return NODES_TRAVERSED.sum();
+		}
+
+		@Override
+		public long getSearches() {
+			return SEARCHES.sum();
+		}
+
+		@Override
+		public long getEqualsCalls() {
+			return EQUALS_CALLS.sum();
+		}
+
+		@Override
+		public long getPeakSize() {
+			return PEAK_SIZE.get();
+		}
+
+		@Override
+		public void reset() {
+			CollectionMetrics.reset();
+		}
+	}
+
+}
@@ -0,0 +1,72 @@
+package hr.fer.zemris.java.custom.collections;
+
+/**
+ * Management interface through which {@link CollectionMetrics} are exported over JMX.
+ * Registered by {@link CollectionMetrics#registerMBean()}.
+ *
+ * @author Marko Benačić
+ *
+ */
+public interface CollectionMetricsMXBean {
+
+	/**
+	 * @return <code>true</code> if metrics are being collected.
+	 */
+	boolean isEnabled();
+
+	/**
+	 * @return number of times an array-backed collection reallocated its array to grow it.
+	 */
+	long getReallocations();
+
+	/**
+	 * @return estimated number of bytes copied by reallocations which grew an array.
+	 */
+	long getBytesCopied();
+
+	/**
+	 * @return number of times an array-backed collection reallocated its array to shrink it.
+	 */
+	long getShrinks();
+
+	/**
+	 * @return estimated number of bytes copied by reallocations which shrank an array.
+	 */
+	long getBytesCopiedByShrinks();
+
+	/**
+	 * @return number of element moves caused by inserting or removing in the middle of an array-backed collection.
+	 */
+	long getElementShifts();
+
+	/**
+	 * @return number of positional lookups in linked collections.
+	 */
+	long getNodeLookups();
+
+	/**
+	 * @return number of nodes traversed by positional lookups in linked collections.
+	 */
+	long getNodesTraversed();
+
+	/**
+	 * @return number of searches by value (contains, indexOf and remove by value).
+	 */
+	long getSearches();
+
+	/**
+	 * @return number of equals calls made by searches by value.
+	 */
+	long getEqualsCalls();
+
+	/**
+	 * @return largest size any instrumented collection has reached.
+	 */
+	long getPeakSize();
+
+	/**
+	 * Sets all counters back to zero.
+	 */
+	void reset();
+
+}
@@ -0,0 +1,415 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe doubly linked list using lazy synchronization. Every node has its own lock, and a change locks
+ * only the nodes next to it, so threads changing different parts of the list do not wait for each other.
+ * <p>
+ * A change first finds its place without locking, then locks the affected nodes from left to right and checks
+ * that they are still live and still linked to each other. If another thread got there first, the check fails
+ * and the change starts over. Removal first marks the node as deleted and only then unlinks it, and an
+ * unlinked node keeps pointing into the list, so a thread walking the list without locks can always continue.
+ * <p>
+ * Traversals (<code>contains</code>, <code>indexOf</code>, <code>forEach</code>, <code>toArray</code>,
+ * <code>get</code>, elements getters) take no locks and skip marked nodes. They are weakly consistent: they never
+ * throw ConcurrentModificationException and see each element which stays in the list during the whole traversal,
+ * but may or may not see elements added or removed meanwhile. Positions are meaningful only while no other
+ * thread is changing the list, so positional methods are best used with positions at the ends.
+ * <code>clear</code> removes elements one by one and is not atomic. <code>removeIf</code> (and so
+ * <code>removeAll</code> and <code>retainAll</code>) removes matching elements in place during a single pass, and
+ * is weakly consistent in the same way: elements added meanwhile may or may not be tested, and the remaining
+ * elements keep their order.
+ * <p>
+ * Permits duplicate elements but not <code>null</code> references.
+ *
+ * @author Marko Benačić
+ *
+ */
+public class ConcurrentLinkedListIndexedCollection extends Collection {
+
+	/**
+	 * Sentinel before the first element, never removed.
+	 */
+	private final ListNode head;
+
+	/**
+	 * Sentinel after the last element, never removed.
+	 */
+	private final ListNode tail;
+
+	/**
+	 * Number of elements, updated after each change.
+	 */
+	private final LongAdder size = new LongAdder();
+
+	/**
+	 * Node of the list. Its monitor is the node's lock.
+	 */
+	private static class ListNode {
+		final Object value;
+		volatile ListNode next;
+		volatile ListNode previous;
+		/**
+		 * set when the node is logically removed, before it is unlinked.
+		 */
+		volatile boolean marked;
+
+		ListNode(Object value) {
+			this.value = value;
+		}
+	}
+
+	/**
+	 * Default constructor, creates empty collection.
+	 */
+	public ConcurrentLinkedListIndexedCollection() {
+		head = new ListNode(null);
+		tail = new ListNode(null);
+		head.next = tail;
+		tail.previous = head;
+	}
+
+	/**
+	 * Creates a new collection and copies elements of the other collection into the new one.
+	 * @param other collection which elements will be copied into new collection.
+	 */
+	public ConcurrentLinkedListIndexedCollection(Collection other) {
+		this();
+		addAll(other);
+	}
+
+	/**
+	 * Adds the given object at the end of collection. Locks only the last node and the tail sentinel.
+	 * @throws NullPointerException if given value is <code>null</code>.
+	 */
+	@Override
+	public void add(Object value) {
+		if(value == null) {
+			throw new NullPointerException("Value can not be null!");
+		}
+		ListNode node = new ListNode(value);
+		while(true) {
+			ListNode last = tail.previous;
+			if(tryLink(last, tail, node)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Inserts the given value so that it is at the given position, counting only live elements.
+	 * @param value Object to be inserted in the collection
+	 * @param position position at which the value will be inserted, must be within [0,size] (inclusive)
+	 * @throws NullPointerException if given value is <code>null</code>.
+	 * @throws IndexOutOfBoundsException if position is negative or greater than the number of elements.
+	 */
+	public void insert(Object value, int position) {
+		if(value == null) {
+			throw new NullPointerException("Value can not be null!");
+		}
+		if(position < 0) {
+			throw new IndexOutOfBoundsException("Index must be within [0,size]");
+		}
+		ListNode node = new ListNode(value);
+		while(true) {
+			ListNode previous = position == 0 ? head : nodeAt(position - 1);
+			if(previous == null) {
+				throw new IndexOutOfBoundsException("Index must be within [0,size]");
+			}
+			if(tryLink(previous, previous.next, node)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns the element at given position, counting only live elements. Lock-free.
+	 * @param index position of the element.
+	 * @return element at given position.
+	 * @throws IndexOutOfBoundsException if index is negative or not less than the number of elements.
+	 */
+	public Object get(int index) {
+		ListNode node = index < 0 ? null : nodeAt(index);
+		if(node == null) {
+			throw new IndexOutOfBoundsException("index must be within range [0, size - 1]");
+		}
+		return node.value;
+	}
+
+	/**
+	 * Removes the element at given position, counting only live elements.
+	 * @param index position of the element.
+	 * @throws IndexOutOfBoundsException if index is negative or not less than the number of elements.
+	 */
+	public void remove(int index) {
+		while(true) {
+			ListNode node = index < 0 ? null : nodeAt(index);
+			if(node == null) {
+				throw new IndexOutOfBoundsException("index must be within range [0, size - 1]");
+			}
+			if(tryUnlink(node)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Removes the first live element equal to the given value. The element is searched for without locking;
+	 * only the found node and its neighbours are locked.
+	 */
+	@Override
+	public boolean remove(Object value) {
+		while(true) {
+			ListNode node = find(value);
+			if(node == null) {
+				return false;
+			}
+			if(tryUnlink(node)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Returns index of the first live element equal to the given value. Lock-free.
+	 * @param value element that we are searching for in collection.
+	 * @return index of given element, or -1 if element is not found.
+	 */
+	public int indexOf(Object value) {
+		int index = 0;
+		for(ListNode current = head.next; current != tail; current = current.next) {
+			if(!current.marked) {
+				if(current.value.equals(value)) {
+					return index;
+				}
+				index++;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Checks whether the collection contains the given element. Lock-free.
+	 */
+	@Override
+	public boolean contains(Object value) {
+		return find(value) != null;
+	}
+
+	/**
+	 * Returns the number of elements. The counter is updated after a change is made, so the result is only
+	 * approximate while other threads are changing the list.
+	 */
+	@Override
+	public int size() {
+		// a removal may be counted before the addition of the same node
+		return Math.max(0, size.intValue());
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return firstLive() == null;
+	}
+
+	/**
+	 * Removes all live elements which satisfy the given tester, in a single pass which unlinks each matching node
+	 * in place. Each element is tested once.
+	 */
+	@Override
+	public boolean removeIf(Tester tester) {
+		if(tester == null) {
+			throw new NullPointerException("Tester can not be null!");
+		}
+		boolean anyRemoved = false;
+		for(ListNode current = head.next; current != tail; current = current.next) {
+			if(current.marked || !tester.test(current.value)) {
+				continue;
+			}
+			// unlinking fails if neighbours changed meanwhile, retry until it succeeds or another thread removes it
+			while(!current.marked) {
+				if(tryUnlink(current)) {
+					anyRemoved = true;
+					break;
+				}
+			}
+		}
+		return anyRemoved;
+	}
+
+	/**
+	 * Calls Processor.process for each live element. Lock-free.
+	 */
+	@Override
+	public void forEach(Processor processor) {
+		for(ListNode current = head.next; current != tail; current = current.next) {
+			if(!current.marked) {
+				processor.process(current.value);
+			}
+		}
+	}
+
+	/**
+	 * Allocates a new array filled with live elements, and returns it. Lock-free.
+	 */
+	@Override
+	public Object[] toArray() {
+		ArrayIndexedCollection elements = new ArrayIndexedCollection(Math.max(size(), 1));
+		forEach(new Processor() {
+			@Override
+			public void process(Object value) {
+				elements.add(value);
+			}
+		});
+		return elements.toArray();
+	}
+
+	/**
+	 * Removes all elements, one by one from the front. Elements added concurrently may remain.
+	 */
+	@Override
+	public void clear() {
+		ListNode node;
+		while((node = firstLive()) != null) {
+			tryUnlink(node);
+		}
+	}
+
+	/**
+	 * Creates a new weakly consistent elements getter, which never throws ConcurrentModificationException.
+	 */
+	@Override
+	public ElementsGetter createElementsGetter() {
+		return new ConcurrentElementsGetter();
+	}
+
+	/**
+	 * Links node between given neighbours if, with both locked, they are live and still adjacent.
+	 * @return <code>true</code> if node was linked, <code>false</code> if the caller must retry.
+	 */
+	private boolean tryLink(ListNode previous, ListNode next, ListNode node) {
+		synchronized(previous) {
+			synchronized(next) {
+				if(previous.marked || next.marked || previous.next != next) {
+					return false;
+				}
+				node.previous = previous;
+				node.next = next;
+				// node is fully set up before it becomes reachable
+				previous.next = node;
+				next.previous = node;
+			}
+		}
+		size.increment();
+		return true;
+	}
+
+	/**
+	 * Marks and unlinks the node if, with it and its neighbours locked, all are live and still adjacent.
+	 * @return <code>true</code> if node was removed, <code>false</code> if the caller must retry.
+	 */
+	private boolean tryUnlink(ListNode node) {
+		ListNode previous = node.previous;
+		ListNode next = node.next;
+		synchronized(previous) {
+			synchronized(node) {
+				synchronized(next) {
+					if(node.marked || previous.marked || next.marked || previous.next != node || node.next != next) {
+						return false;
+					}
+					node.marked = true;
+					previous.next = next;
+					next.previous = previous;
+				}
+			}
+		}
+		size.decrement();
+		return true;
+	}
+
+	/**
+	 * Returns the first live node whose value equals the given value, or <code>null</code>. Lock-free.
+	 */
+	private ListNode find(Object value) {
+		for(ListNode current = head.next; current != tail; current = current.next) {
+			if(!current.marked && current.value.equals(value)) {
+				return current;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the live node at given position, or <code>null</code> if there are not enough nodes. Lock-free.
+	 */
+	private ListNode nodeAt(int index) {
+		int i = 0;
+		for(ListNode current = head.next; current != tail; current = current.next) {
+			if(!current.marked) {
+				if(i == index) {
+					return current;
+				}
+				i++;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the first live node, or <code>null</code> if the list is empty. Lock-free.
+	 */
+	private ListNode firstLive() {
+		for(ListNode current = head.next; current != tail; current = current.next) {
+			if(!current.marked) {
+				return current;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Elements getter which follows next links without locking, skipping marked nodes.
+	 */
+	private class ConcurrentElementsGetter extends ElementsGetter {
+
+		/**
+		 * node whose value was returned last, head before the first call of <code>next</code>.
+		 */
+		private ListNode current = head;
+
+		/**
+		 * next live node found by <code>hasNext</code>, <code>null</code> if not looked for yet.
+		 */
+		private ListNode upcoming;
+
+		@Override
+		public boolean hasNext() {
+			if(upcoming == null) {
+				ListNode node = current.next;
+				while(node != tail && node.marked) {
+					node = node.next;
+				}
+				upcoming = node;
+			}
+			return upcoming != tail;
+		}
+
+		@Override
+		public Object next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException("No more elements.");
+			}
+			current = upcoming;
+			upcoming = null;
+			return current.value;
+		}
+
+		@Override
+		public void reset() {
+			current = head;
+			upcoming = null;
+		}
+	}
+
+}
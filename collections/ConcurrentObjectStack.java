@@ -0,0 +1,185 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Thread-safe, lock-free implementation of a stack that works with Objects. Has the same operations as
+ * {@link ObjectStack}, but can be shared by any number of threads without external locking.
+ * <p>
+ * The stack is a Treiber stack: a singly linked list whose top is replaced with compare-and-set. When that
+ * compare-and-set fails because of contention, the thread tries an elimination array instead: a pushing thread
+ * leaves its value in a random slot for a short time, and a popping thread which finds it there takes it
+ * directly. Such pairs of operations cancel out without touching the top of the stack at all, so throughput
+ * keeps growing with the number of threads instead of collapsing on one contended reference.
+ * @author Marko Benačić
+ *
+ */
+public class ConcurrentObjectStack {
+
+	/**
+	 * Number of times a pushing thread checks whether its offer in the elimination array was taken.
+	 */
+	private static final int ELIMINATION_SPINS = 64;
+
+	/**
+	 * Top of the stack, <code>null</code> if the stack is empty.
+	 */
+	private final AtomicReference<Node> top;
+
+	/**
+	 * Slots in which pushing threads offer their nodes to popping threads.
+	 */
+	private final AtomicReferenceArray<Node> elimination;
+
+	/**
+	 * private static class representing one element of the stack.
+	 */
+	private static class Node{
+		final Object value;
+		Node next;
+		/**
+		 * number of elements on the stack when this node is on top.
+		 */
+		int size;
+
+		Node(Object value) {
+			this.value = value;
+		}
+	}
+
+	/**
+	 * Default constructor. Creates an empty stack with an elimination array sized for the number of processors.
+	 */
+	public ConcurrentObjectStack() {
+		this(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+	}
+
+	/**
+	 * Creates an empty stack with an elimination array of given size.
+	 * @param eliminationSize number of slots in the elimination array.
+	 * @throws IllegalArgumentException if elimination size is less than 1.
+	 */
+	public ConcurrentObjectStack(int eliminationSize) {
+		if(eliminationSize < 1) {
+			throw new IllegalArgumentException("eliminationSize can't be less than 1");
+		}
+		this.top = new AtomicReference<>();
+		this.elimination = new AtomicReferenceArray<>(eliminationSize);
+	}
+
+	/**
+	 *
+	 * @return <code>true</code> if stack has no elements, <code>false</code> otherwise
+	 */
+	public boolean isEmpty() {
+		return top.get() == null;
+	}
+
+	/**
+	 *
+	 * @return number of elements on the stack.
+	 */
+	public int size() {
+		Node current = top.get();
+		return current == null ? 0 : current.size;
+	}
+
+	/**
+	 * adds value on top of the stack.
+	 * @param value value to be pushed on the stack.
+	 * @throws IllegalArgumentException if given value is <code>null</code>.
+	 */
+	public void push(Object value) {
+		if(value == null) {
+			throw new IllegalArgumentException("Can not push null on stack");
+		}
+
+		Node node = new Node(value);
+		while(true) {
+			Node current = top.get();
+			node.next = current;
+			node.size = current == null ? 1 : current.size + 1;
+			if(top.compareAndSet(current, node)) {
+				return;
+			}
+			if(offer(node)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Pops the object from stack(retrieves and removes from stack).
+	 * @return popped object
+	 * @throws EmptyStackException if stack is empty.
+	 */
+	public Object pop() {
+		while(true) {
+			Node current = top.get();
+			if(current == null) {
+				throw new EmptyStackException("Can not pop from empty stack.");
+			}
+			if(top.compareAndSet(current, current.next)) {
+				return current.value;
+			}
+			Node offered = take();
+			if(offered != null) {
+				return offered.value;
+			}
+		}
+	}
+
+	/**
+	 * peeks the object from stack (retrieves, but does not remove from stack).
+	 * @return peeked object.
+	 * @throws EmptyStackException if stack is empty.
+	 */
+	public Object peek() {
+		Node current = top.get();
+		if(current == null) {
+			throw new EmptyStackException("Can not pop from empty stack.");
+		}
+		return current.value;
+	}
+
+	/**
+	 * Removes all elements from stack.
+	 */
+	public void clear() {
+		top.set(null);
+	}
+
+	/**
+	 * Offers given node to popping threads through a random slot of the elimination array.
+	 * @return <code>true</code> if a popping thread took the node, <code>false</code> if it has to be pushed again.
+	 */
+	private boolean offer(Node node) {
+		int slot = ThreadLocalRandom.current().nextInt(elimination.length());
+		if(!elimination.compareAndSet(slot, null, node)) {
+			return false;
+		}
+		for(int i = 0; i < ELIMINATION_SPINS; i++) {
+			if(elimination.get(slot) != node) {
+				return true;
+			}
+		}
+		// withdrawing the offer fails only if a popping thread took it in the meantime
+		return !elimination.compareAndSet(slot, node, null);
+	}
+
+	/**
+	 * Takes a node offered by a pushing thread from a random slot of the elimination array.
+	 * @return taken node, or <code>null</code> if there was no offer in the slot.
+	 */
+	private Node take() {
+		int slot = ThreadLocalRandom.current().nextInt(elimination.length());
+		Node offered = elimination.get(slot);
+		if(offered != null && elimination.compareAndSet(slot, offered, null)) {
+			return offered;
+		}
+		return null;
+	}
+
+}
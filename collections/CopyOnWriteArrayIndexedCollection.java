@@ -0,0 +1,371 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Thread-safe array-backed collection for data which is read far more often than it is changed.
+ * Elements are kept in an array which is never changed once published. Reading methods (<code>get</code>,
+ * <code>contains</code>, <code>indexOf</code>, <code>forEach</code>, <code>toArray</code>, elements getters)
+ * read the current array from a <code>volatile</code> field and take no lock, so any number of readers run in
+ * parallel and never wait for writers.
+ * <p>
+ * Every change copies the array, applies the change to the copy and publishes it. Writers are serialized by a
+ * lock. A group of changes can be applied with {@link #batch(Batch)}, which copies and publishes the array only
+ * once for the whole group, and readers see either none or all of the group's changes.
+ * <p>
+ * Iteration works over the array current at the time it started and never throws
+ * ConcurrentModificationException. Permits duplicate elements but not <code>null</code> references.
+ *
+ * @author Marko Benačić
+ *
+ */
+public class CopyOnWriteArrayIndexedCollection extends Collection {
+
+	/**
+	 * Current elements, exactly as many as the size of the collection. Never changed after being published.
+	 */
+	private volatile Object[] elements;
+
+	/**
+	 * Lock serializing writers.
+	 */
+	private final Object writeLock = new Object();
+
+	/**
+	 * Group of changes applied by {@link CopyOnWriteArrayIndexedCollection#batch(Batch)}.
+	 * Contains only one method; <code>apply</code>, which should be implemented and overridden by another class.
+	 */
+	public static class Batch {
+
+		/**
+		 * Method that applies changes to the given working copy of the collection. Needs to be overridden and
+		 * implemented. The working copy must not be used after the method returns.
+		 * In this specific class, method does nothing.
+		 * @param elements working copy of the elements, which can be changed freely.
+		 */
+		public void apply(ArrayIndexedCollection elements) {
+		}
+	}
+
+	/**
+	 * Default constructor. Creates an empty collection.
+	 */
+	public CopyOnWriteArrayIndexedCollection() {
+		this.elements = new Object[0];
+	}
+
+	/**
+	 * Creates a collection which is a copy of given collection.
+	 * @param other collection to be copied.
+	 * @throws NullPointerException if given collection is <code>null</code> or contains <code>null</code>.
+	 */
+	public CopyOnWriteArrayIndexedCollection(Collection other) {
+		if(other == null) {
+			throw new NullPointerException("Given collection can't be null");
+		}
+		this.elements = checkNulls(other.toArray());
+	}
+
+	/**
+	 * Returns object at the index position in the collection. Lock-free, complexity O(1).
+	 * @param index position in the collection from which the object will be retrieved.
+	 * @return object at indexed position
+	 * @throws IndexOutOfBoundsException if index is not within [0,size-1].
+	 */
+	public Object get(int index) {
+		Object[] snapshot = elements;
+		if(index < 0 || index >= snapshot.length) {
+			throw new IndexOutOfBoundsException("index must be within [0, size - 1]");
+		}
+		return snapshot[index];
+	}
+
+	/**
+	 * Returns index within the collection of given value. Search is based on equals method.
+	 * Lock-free, complexity O(n).
+	 * @param value element that we are searching for in collection.
+	 * @return index of given element, or -1 if element is not found.
+	 */
+	public int indexOf(Object value) {
+		return indexOf(elements, value);
+	}
+
+	/**
+	 * Returns <code>true</code> if collection contains given value, <code>false</code> otherwise. Lock-free.
+	 * @param value object which we check whether it is in the collection.
+	 */
+	@Override
+	public boolean contains(Object value) {
+		return indexOf(elements, value) != -1;
+	}
+
+	@Override
+	public int size() {
+		return elements.length;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return elements.length == 0;
+	}
+
+	/**
+	 * Allocates a new array filled with this collections content, and returns it. Lock-free.
+	 */
+	@Override
+	public Object[] toArray() {
+		return elements.clone();
+	}
+
+	/**
+	 * Calls Processor.process for each element of the array current when the call started. Lock-free.
+	 */
+	@Override
+	public void forEach(Processor processor) {
+		Object[] snapshot = elements;
+		for(int i = 0; i < snapshot.length; i++) {
+			processor.process(snapshot[i]);
+		}
+	}
+
+	/**
+	 * Adds given object at the end of the collection. Copies the array, complexity O(n).
+	 * @param value object to be added to the collection.
+	 * @throws NullPointerException if given value is <code>null</code>.
+	 */
+	@Override
+	public void add(Object value) {
+		if(value == null) {
+			throw new NullPointerException("Value can not be null!");
+		}
+		synchronized(writeLock) {
+			Object[] current = elements;
+			Object[] updated = Arrays.copyOf(current, current.length + 1);
+			updated[current.length] = value;
+			elements = updated;
+		}
+	}
+
+	/**
+	 * Inserts the given value at the given position. Copies the array, complexity O(n).
+	 * @param value Object to be inserted in the collection
+	 * @param position position at which the value will be inserted, must be within [0,size] (inclusive)
+	 * @throws NullPointerException if given value is <code>null</code>.
+	 * @throws IndexOutOfBoundsException if index is not within [0,size] (inclusive)
+	 */
+	public void insert(Object value, int position) {
+		if(value == null) {
+			throw new NullPointerException("Value can not be null!");
+		}
+		synchronized(writeLock) {
+			Object[] current = elements;
+			if(position < 0 || position > current.length) {
+				throw new IndexOutOfBoundsException("Index must be within [0,size]");
+			}
+			Object[] updated = new Object[current.length + 1];
+			System.arraycopy(current, 0, updated, 0, position);
+			updated[position] = value;
+			System.arraycopy(current, position, updated, position + 1, current.length - position);
+			elements = updated;
+		}
+	}
+
+	/**
+	 * Removes element from specified index from collection. Copies the array, complexity O(n).
+	 * @param index position from which the element must be removed.
+	 * @throws IndexOutOfBoundsException if index is not within [0, size-1]
+	 */
+	public void remove(int index) {
+		synchronized(writeLock) {
+			Object[] current = elements;
+			if(index < 0 || index >= current.length) {
+				throw new IndexOutOfBoundsException("index must be within [0,size-1]");
+			}
+			elements = without(current, index);
+		}
+	}
+
+	/**
+	 * Checks if the collection has a given element determined by equals method.
+	 * If it does, removes only one recurrence of it. Copies the array only if the element is found.
+	 */
+	@Override
+	public boolean remove(Object value) {
+		synchronized(writeLock) {
+			Object[] current = elements;
+			int index = indexOf(current, value);
+			if(index == -1) {
+				return false;
+			}
+			elements = without(current, index);
+			return true;
+		}
+	}
+
+	/**
+	 * Adds all elements of the given collection at the end, with a single copy of the array.
+	 * @throws NullPointerException if given collection is <code>null</code> or contains <code>null</code>.
+	 */
+	@Override
+	public void addAll(Collection other) {
+		if(other == null) {
+			throw new NullPointerException("Given collection can't be null");
+		}
+		Object[] added = checkNulls(other.toArray());
+		if(added.length == 0) {
+			return;
+		}
+		synchronized(writeLock) {
+			Object[] current = elements;
+			Object[] updated = Arrays.copyOf(current, current.length + added.length);
+			System.arraycopy(added, 0, updated, current.length, added.length);
+			elements = updated;
+		}
+	}
+
+	/**
+	 * Removes all elements which satisfy the given tester, with a single copy of the array.
+	 * The tester is called while holding the write lock. If the tester throws, elements tested so far are removed
+	 * and the rest are kept.
+	 */
+	@Override
+	public boolean removeIf(Tester tester) {
+		if(tester == null) {
+			throw new NullPointerException("Tester can not be null!");
+		}
+		synchronized(writeLock) {
+			Object[] current = elements;
+			Object[] kept = new Object[current.length];
+			int count = 0;
+			int i = 0;
+			try {
+				for(; i < current.length; i++) {
+					if(!tester.test(current[i])) {
+						kept[count++] = current[i];
+					}
+				}
+			}finally {
+				if(count < i) {
+					// if the tester threw, keep the untested tail
+					System.arraycopy(current, i, kept, count, current.length - i);
+					elements = Arrays.copyOf(kept, count + current.length - i);
+				}
+			}
+			return count < current.length;
+		}
+	}
+
+	/**
+	 * Removes all elements from the collection.
+	 */
+	@Override
+	public void clear() {
+		synchronized(writeLock) {
+			elements = new Object[0];
+		}
+	}
+
+	/**
+	 * Applies a group of changes atomically. The batch gets a working copy of the elements which it can change
+	 * with any method of {@link ArrayIndexedCollection}; when it returns, the result is published as one new
+	 * array. Readers never see a partly applied batch. If the batch throws, nothing is published.
+	 * The batch runs while holding the write lock, so other writers wait for it.
+	 * @param batch Batch applying the changes.
+	 * @throws NullPointerException if given batch is <code>null</code>, or if it leaves a <code>null</code> in
+	 * the working copy.
+	 */
+	public void batch(Batch batch) {
+		if(batch == null) {
+			throw new NullPointerException("Batch can not be null!");
+		}
+		synchronized(writeLock) {
+			Object[] current = elements;
+			ArrayIndexedCollection working = new ArrayIndexedCollection(Math.max(current.length, 1));
+			for(int i = 0; i < current.length; i++) {
+				working.add(current[i]);
+			}
+			batch.apply(working);
+			elements = checkNulls(working.toArray());
+		}
+	}
+
+	/**
+	 * Creates a new elements getter over the array current at the time of creation or last reset.
+	 * The getter is never affected by later changes. Each step of the getter is O(1).
+	 */
+	@Override
+	public ElementsGetter createElementsGetter() {
+		return new SnapshotElementsGetter();
+	}
+
+	/**
+	 * Returns index of the first element of the array equal to the given value, or -1.
+	 */
+	private static int indexOf(Object[] array, Object value) {
+		for(int i = 0; i < array.length; i++) {
+			if(array[i].equals(value)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns a copy of the array without the element at given index.
+	 */
+	private static Object[] without(Object[] array, int index) {
+		Object[] updated = new Object[array.length - 1];
+		System.arraycopy(array, 0, updated, 0, index);
+		System.arraycopy(array, index + 1, updated, index, array.length - index - 1);
+		return updated;
+	}
+
+	/**
+	 * Returns the given array after checking it has no <code>null</code> elements.
+	 */
+	private static Object[] checkNulls(Object[] array) {
+		for(int i = 0; i < array.length; i++) {
+			if(array[i] == null) {
+				throw new NullPointerException("Value can not be null!");
+			}
+		}
+		return array;
+	}
+
+	/**
+	 * Elements getter which walks one published array.
+	 */
+	private class SnapshotElementsGetter extends ElementsGetter {
+
+		/**
+		 * array being walked.
+		 */
+		private Object[] snapshot = elements;
+
+		/**
+		 * index of the next element to be returned.
+		 */
+		private int current;
+
+		@Override
+		public boolean hasNext() {
+			return current < snapshot.length;
+		}
+
+		@Override
+		public Object next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException("No more elements.");
+			}
+			return snapshot[current++];
+		}
+
+		@Override
+		public void reset() {
+			snapshot = elements;
+			current = 0;
+		}
+	}
+
+}
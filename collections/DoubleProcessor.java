@@ -0,0 +1,19 @@
+package hr.fer.zemris.java.custom.collections;
+/**
+ * Primitive <code>double</code> counterpart of {@link Processor}. Used by {@link DoubleArrayIndexedCollection#forEach(DoubleProcessor)}
+ * so that elements are passed to the processor without being boxed.
+ * Contains only one method; <code>process</code>, which should be implemented and overridden by another class.
+ *
+ * @author Marko Benačić
+ *
+ */
+public class DoubleProcessor {
+
+	/**
+	 * Method that performs some operation with the passed value. Needs to be overridden and implemented.
+	 * @param value double value over which the implemented operation will be made.
+	 */
+	public void process(double value) {
+	}
+
+}
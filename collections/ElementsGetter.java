@@ -0,0 +1,51 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.NoSuchElementException;
+
+/**
+ * This is an abstract model of a cursor which returns elements of a collection one by one, in order.
+ * Unlike {@link Collection#forEach(Processor)}, the caller decides when to take the next element, so it can stop
+ * early or walk several collections in lockstep. Getters are created by {@link Collection#createElementsGetter()}
+ * and can be reused for any number of passes by calling <code>reset</code>, so repeated scans allocate nothing.
+ * <p>
+ * Getters are fail-fast: if the collection is structurally modified (an element is added, inserted or removed,
+ * or the collection is cleared) after the getter was created or last reset, <code>hasNext</code> and
+ * <code>next</code> throw {@link java.util.ConcurrentModificationException}.
+ * <p>
+ * Because it is an abstract model, it should not be used, only classes that extend ElementsGetter
+ * and override its methods should be used.
+ *
+ * @author Marko Benačić
+ *
+ */
+public class ElementsGetter {
+
+	/**
+	 * Checks whether there are any elements which were not yet returned by <code>next</code>.
+	 * In this specific class, method returns false. Needs to be implemented.
+	 * @return <code>true</code> if there are more elements, <code>false</code> otherwise.
+	 * @throws java.util.ConcurrentModificationException if the collection was structurally modified.
+	 */
+	public boolean hasNext() {
+		return false;
+	}
+
+	/**
+	 * Returns the next element of the collection.
+	 * In this specific class, method throws NoSuchElementException. Needs to be implemented.
+	 * @return next element.
+	 * @throws NoSuchElementException if there are no more elements.
+	 * @throws java.util.ConcurrentModificationException if the collection was structurally modified.
+	 */
+	public Object next() {
+		throw new NoSuchElementException();
+	}
+
+	/**
+	 * Moves the getter back to the first element of the collection and accepts all modifications of the
+	 * collection made so far. In this specific class, method does nothing. Needs to be implemented.
+	 */
+	public void reset() {
+	}
+
+}
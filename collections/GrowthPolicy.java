@@ -0,0 +1,114 @@
+package hr.fer.zemris.java.custom.collections;
+/**
+ * This is a model of a strategy which decides how much an array-backed collection grows when its array is full.
+ * In this specific class capacity is doubled, which keeps average cost of adding O(1) at the price of up to
+ * half of the array being unused. Other strategies are created with <code>factor</code>, <code>additive</code>
+ * and <code>maxStep</code>, or by extending this class and overriding <code>grow</code>.
+ *
+ * @author Marko Benačić
+ *
+ */
+public class GrowthPolicy {
+
+	/**
+	 * Largest capacity an array can have on most virtual machines.
+	 */
+	public static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+	/**
+	 * Policy which doubles the capacity.
+	 */
+	public static final GrowthPolicy DOUBLING = new GrowthPolicy();
+
+	/**
+	 * Method that computes a new capacity of a full array. Can be overridden.
+	 * In this specific class, method returns double the current capacity.
+	 * @param currentCapacity current length of the array.
+	 * @return proposed new length of the array.
+	 */
+	public int grow(int currentCapacity) {
+		return currentCapacity * 2;
+	}
+
+	/**
+	 * Returns the capacity an array must be resized to so that it can hold at least <code>minCapacity</code>
+	 * elements. Guards <code>grow</code> against results which are too small or overflow.
+	 * @param currentCapacity current length of the array.
+	 * @param minCapacity number of elements the array must be able to hold.
+	 * @return new length of the array.
+	 * @throws OutOfMemoryError if <code>minCapacity</code> is larger than {@link #MAX_CAPACITY}.
+	 */
+	public final int newCapacity(int currentCapacity, int minCapacity) {
+		if(minCapacity < 0 || minCapacity > MAX_CAPACITY) {
+			throw new OutOfMemoryError("Required array size too large");
+		}
+		int proposed = grow(currentCapacity);
+		if(proposed < 0 || proposed > MAX_CAPACITY) {
+			proposed = MAX_CAPACITY;
+		}
+		return Math.max(proposed, Math.max(minCapacity, currentCapacity + 1));
+	}
+
+	/**
+	 * Creates a policy which multiplies the capacity by given factor.
+	 * @param factor growth factor, must be greater than 1.
+	 * @return created policy.
+	 * @throws IllegalArgumentException if factor is not greater than 1.
+	 */
+	public static GrowthPolicy factor(double factor) {
+		if(!(factor > 1)) {
+			throw new IllegalArgumentException("Growth factor must be greater than 1");
+		}
+		return new GrowthPolicy() {
+			@Override
+			public int grow(int currentCapacity) {
+				return (int) Math.min(MAX_CAPACITY, currentCapacity * factor);
+			}
+		};
+	}
+
+	/**
+	 * Creates a policy which adds a constant number of slots. Wastes at most <code>increment</code> slots, but
+	 * makes average cost of adding O(n / increment).
+	 * @param increment number of slots added, must be at least 1.
+	 * @return created policy.
+	 * @throws IllegalArgumentException if increment is less than 1.
+	 */
+	public static GrowthPolicy additive(int increment) {
+		if(increment < 1) {
+			throw new IllegalArgumentException("Increment can't be less than 1");
+		}
+		return new GrowthPolicy() {
+			@Override
+			public int grow(int currentCapacity) {
+				return currentCapacity + increment;
+			}
+		};
+	}
+
+	/**
+	 * Creates a policy which multiplies the capacity by given factor, but never adds more than
+	 * <code>maxStep</code> slots at once. Small arrays grow geometrically and large ones linearly, which bounds
+	 * memory wasted by large collections.
+	 * @param factor growth factor, must be greater than 1.
+	 * @param maxStep largest number of slots added at once, must be at least 1.
+	 * @return created policy.
+	 * @throws IllegalArgumentException if factor is not greater than 1 or maxStep is less than 1.
+	 */
+	public static GrowthPolicy maxStep(double factor, int maxStep) {
+		if(!(factor > 1)) {
+			throw new IllegalArgumentException("Growth factor must be greater than 1");
+		}
+		if(maxStep < 1) {
+			throw new IllegalArgumentException("Maximum step can't be less than 1");
+		}
+		return new GrowthPolicy() {
+			@Override
+			public int grow(int currentCapacity) {
+				long step = Math.min(maxStep, (long) (currentCapacity * (factor - 1)));
+				return (int) Math.min(MAX_CAPACITY, currentCapacity + Math.max(step, 1));
+			}
+		};
+	}
+
+}
@@ -0,0 +1,498 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * Array-backed indexed collection that keeps an open-addressing hash index next to its positional storage.
+ * Positional operations behave exactly like in {@link ArrayIndexedCollection}, but <code>contains</code> is
+ * answered from the index in expected O(1), and <code>indexOf</code> / <code>remove(Object)</code> find the first
+ * occurrence of the value without scanning the collection.
+ * Permits duplicate elements but not <code>null</code> references.
+ * <p>
+ * For every distinct value the index stores how many times it occurs and the position of its first occurrence.
+ * Cached positions are trusted only if they are lower than the lowest position edited since the last rebuild,
+ * so appending and removing from the end never invalidate them; an edit in the middle causes one O(n) rebuild
+ * the next time a stale position is requested.
+ * @author Marko Benačić
+ *
+ */
+public class HashIndexedCollection extends Collection{
+
+	/**
+	 * default size of the underlying array. Will be used if initial capacity is not given.
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Number of elements in the collection.
+	 */
+	private int size;
+
+	/**
+	 * Number of structural modifications (insertions, removals and clearing) of the collection.
+	 * Used by elements getters to detect that the collection was changed while they were used.
+	 */
+	private long modificationCount;
+
+	/**
+	 * Array containing elements of the collection.
+	 */
+	private Object[] elements;
+
+	/**
+	 * Distinct values stored in the index, <code>null</code> marks a free slot. Length is always a power of two.
+	 */
+	private Object[] keys;
+
+	/**
+	 * Number of occurrences of the value in the same slot of <code>keys</code>.
+	 */
+	private int[] counts;
+
+	/**
+	 * Position of the first occurrence of the value in the same slot of <code>keys</code>.
+	 */
+	private int[] firstIndices;
+
+	/**
+	 * Number of distinct values in the index.
+	 */
+	private int distinct;
+
+	/**
+	 * Lowest position changed by an insert or remove since the index positions were last rebuilt.
+	 * Positions in <code>firstIndices</code> lower than this are still correct.
+	 */
+	private int dirtyFrom;
+
+	/**
+	 * Default constructor. Creates an empty collection with default capacity (which is 16).
+	 */
+	public HashIndexedCollection() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty collection with given initial capacity.
+	 * @param initialCapacity specified capacity of the collection.
+	 * @throws IllegalArgumentException if capacity is less than 1.
+	 */
+	public HashIndexedCollection(int initialCapacity) {
+		if(initialCapacity < 1) {
+			throw new IllegalArgumentException("initialCapacity can't be less than 1");
+		}
+
+		this.size = 0;
+		this.elements = new Object[initialCapacity];
+		int tableSize = tableSizeFor(initialCapacity);
+		this.keys = new Object[tableSize];
+		this.counts = new int[tableSize];
+		this.firstIndices = new int[tableSize];
+		this.dirtyFrom = Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Creates a collection which is a copy of given collection.
+	 * @param other collection to be copied.
+	 * @throws NullPointerException if given collection is null.
+	 */
+	public HashIndexedCollection(Collection other) {
+		this(Math.max(DEFAULT_CAPACITY, checkNotNull(other).size()));
+		addAll(other);
+	}
+
+	/**
+	 * Adds given object at the end of the collection. Complexity O(1) amortized.
+	 * @param value object to be added to the collection.
+	 * @throws NullPointerException if given value is null.
+	 */
+	@Override
+	public void add(Object value) {
+		insert(value, size);
+	}
+
+	/**
+	 * Returns object at the index position in the collection. Complexity O(1).
+	 * @param index position in the collection from which the object will be retrieved.
+	 * @return object at indexed position
+	 * @throws IndexOutOfBoundsException if index is not within [0,size-1].
+	 */
+	public Object get(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index must be within [0, size - 1]");
+		}
+
+		return elements[index];
+	}
+
+	/**
+	 * Removes all elements from the collection. Capacity remains the same.
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(elements, 0, size, null);
+		Arrays.fill(keys, null);
+		size = 0;
+		modificationCount++;
+		distinct = 0;
+		dirtyFrom = Integer.MAX_VALUE;
+	}
+
+	/**
+	 * insert the given value at the given position in the collection.
+	 * Average complexity O(n) because of shifting, index update is expected O(1).
+	 * @param value Object to be inserted in the collection
+	 * @param position position at which the value will be inserted, must be within [0,size] (inclusive)
+	 * @throws NullPointerException if given value is null.
+	 * @throws IndexOutOfBoundsException if index is not within [0,size] (inclusive)
+	 */
+	public void insert(Object value, int position) {
+		if(value == null) {
+			throw new NullPointerException("Value can not be null!");
+		}
+		if(position < 0 || position > size) {
+			throw new IndexOutOfBoundsException("Index must be within [0,size]");
+		}
+
+		if(size == elements.length) {
+			elements = Arrays.copyOf(elements, size*2);
+		}
+		if(position < size) {
+			System.arraycopy(elements, position, elements, position + 1, size - position);
+			dirtyFrom = Math.min(dirtyFrom, position);
+		}
+		elements[position] = value;
+		size++;
+		modificationCount++;
+
+		indexAdd(value, position);
+	}
+
+	/**
+	 * Removes element from specified index from collection.
+	 * @param index position from which the element must be removed.
+	 * @throws IndexOutOfBoundsException if index is not within [0, size-1]
+	 */
+	public void remove(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index must be within [0,size-1]");
+		}
+
+		Object value = elements[index];
+		if(index < size - 1) {
+			System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+			dirtyFrom = Math.min(dirtyFrom, index);
+		}
+		elements[size - 1] = null;
+		size--;
+		modificationCount++;
+
+		indexRemove(value);
+	}
+
+	/**
+	 * Returns <code>true</code> if has no elements, <code>false</code> otherwise.
+	 */
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * returns number of elements in the collection.
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns <code>true</code> if collection contains given value, <code>false</code> otherwise.
+	 * Expected complexity O(1).
+	 * @param value object which we check whether it is in the collection.
+	 */
+	@Override
+	public boolean contains(Object value) {
+		return value != null && findSlot(value) != -1;
+	}
+
+	/**
+	 * returns index of the first occurrence of given value in the collection. Search is based on equals method.
+	 * Expected complexity O(1), unless the collection was edited in the middle since the last lookup.
+	 * @param value element that we are searching for in collection.
+	 * @return index of given element. If element is not found returns -1.
+	 * @throws IllegalArgumentException if given value is <code>null</code>.
+	 */
+	public int indexOf(Object value) {
+		if(value == null) {
+			throw new IllegalArgumentException("given value can not be null!");
+		}
+
+		int slot = findSlot(value);
+		if(slot == -1) {
+			return -1;
+		}
+		if(firstIndices[slot] >= dirtyFrom) {
+			rebuildPositions();
+		}
+		return firstIndices[slot];
+	}
+
+	/**
+	 * Checks if the collection has a given element determined by equals method.
+	 * If it does, removes only the first occurrence of it.
+	 * @param value object to remove from collection
+	 * @return boolean value whether element was found and removed.
+	 */
+	@Override
+	public boolean remove(Object value) {
+		if(value == null) {
+			return false;
+		}
+		int index = indexOf(value);
+		if(index == -1) {
+			return false;
+		}
+		remove(index);
+		return true;
+	}
+
+	/**
+	 * Removes all elements which satisfy the given tester in a single pass, moving each kept element at most once.
+	 * Each removed element is taken out of the index in place, and cached positions from the first removed
+	 * position on are marked stale. If the tester throws, elements tested so far are removed and the rest are
+	 * kept. Complexity O(n).
+	 * @param tester Tester deciding which elements are removed.
+	 * @return <code>true</code> if any element was removed, <code>false</code> otherwise.
+	 * @throws NullPointerException if given tester is <code>null</code>.
+	 */
+	@Override
+	public boolean removeIf(Tester tester) {
+		if(tester == null) {
+			throw new NullPointerException("Tester can not be null!");
+		}
+
+		int read = 0;
+		int write = 0;
+		try {
+			for(; read < size; read++) {
+				Object value = elements[read];
+				if(tester.test(value)) {
+					// positions before the first removed element do not change
+					dirtyFrom = Math.min(dirtyFrom, write);
+					indexRemove(value);
+				}else {
+					elements[write++] = value;
+				}
+			}
+		}finally {
+			// if the tester threw, keep the untested tail
+			if(read < size) {
+				System.arraycopy(elements, read, elements, write, size - read);
+				write += size - read;
+			}
+			if(write < size) {
+				Arrays.fill(elements, write, size, null);
+				size = write;
+				modificationCount++;
+			}
+		}
+		return read != write;
+	}
+
+	/**
+	 * Allocates a new array filled with this collections content, and returns it.
+	 */
+	@Override
+	public Object[] toArray() {
+		return Arrays.copyOf(elements, size);
+	}
+
+	@Override
+	public void forEach(Processor processor) {
+		for(int i = 0; i < size; i++) {
+			processor.process(elements[i]);
+		}
+	}
+
+	/**
+	 * Registers one more occurrence of the value placed at the given position.
+	 */
+	private void indexAdd(Object value, int position) {
+		int slot = findSlot(value);
+		if(slot != -1) {
+			counts[slot]++;
+			return;
+		}
+
+		if((distinct + 1) * 2 > keys.length) {
+			resizeIndex(keys.length * 2);
+		}
+		int mask = keys.length - 1;
+		int i = hash(value) & mask;
+		while(keys[i] != null) {
+			i = (i + 1) & mask;
+		}
+		keys[i] = value;
+		counts[i] = 1;
+		firstIndices[i] = position;
+		distinct++;
+	}
+
+	/**
+	 * Removes one occurrence of the value from the index, and the value itself once no occurrences are left.
+	 */
+	private void indexRemove(Object value) {
+		int slot = findSlot(value);
+		if(--counts[slot] > 0) {
+			return;
+		}
+
+		// backward shift deletion, so that no tombstones are needed in the probe sequences
+		int mask = keys.length - 1;
+		int hole = slot;
+		int i = (hole + 1) & mask;
+		while(keys[i] != null) {
+			int home = hash(keys[i]) & mask;
+			if(((i - home) & mask) >= ((i - hole) & mask)) {
+				keys[hole] = keys[i];
+				counts[hole] = counts[i];
+				firstIndices[hole] = firstIndices[i];
+				hole = i;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[hole] = null;
+		distinct--;
+	}
+
+	/**
+	 * Returns the slot of the index which holds given value, or -1 if value is not in the index.
+	 */
+	private int findSlot(Object value) {
+		int mask = keys.length - 1;
+		int i = hash(value) & mask;
+		Object key;
+		while((key = keys[i]) != null) {
+			if(key.equals(value)) {
+				return i;
+			}
+			i = (i + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Recomputes the first occurrence of every value in one pass over the elements.
+	 */
+	private void rebuildPositions() {
+		for(int i = 0; i < keys.length; i++) {
+			firstIndices[i] = -1;
+		}
+		for(int i = 0; i < size; i++) {
+			int slot = findSlot(elements[i]);
+			if(firstIndices[slot] == -1) {
+				firstIndices[slot] = i;
+			}
+		}
+		dirtyFrom = Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Moves all entries of the index into new tables of the given length.
+	 */
+	private void resizeIndex(int newLength) {
+		Object[] oldKeys = keys;
+		int[] oldCounts = counts;
+		int[] oldFirstIndices = firstIndices;
+
+		keys = new Object[newLength];
+		counts = new int[newLength];
+		firstIndices = new int[newLength];
+		int mask = newLength - 1;
+		for(int j = 0; j < oldKeys.length; j++) {
+			if(oldKeys[j] == null) {
+				continue;
+			}
+			int i = hash(oldKeys[j]) & mask;
+			while(keys[i] != null) {
+				i = (i + 1) & mask;
+			}
+			keys[i] = oldKeys[j];
+			counts[i] = oldCounts[j];
+			firstIndices[i] = oldFirstIndices[j];
+		}
+	}
+
+	/**
+	 * Spreads the bits of the hash code so that poor hash codes do not form long probe sequences.
+	 */
+	private static int hash(Object value) {
+		int h = value.hashCode() * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Returns the smallest power of two which keeps the index at most half full for given number of elements.
+	 */
+	private static int tableSizeFor(int capacity) {
+		int n = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 2;
+		return n > 0 ? n : 1 << 30;
+	}
+
+	private static Collection checkNotNull(Collection other) {
+		if(other == null) {
+			throw new NullPointerException("Given collection can't be null");
+		}
+		return other;
+	}
+	
+	/**
+	 * Creates a new elements getter over this collection. Each step of the getter is O(1).
+	 */
+	@Override
+	public ElementsGetter createElementsGetter() {
+		return new ArrayElementsGetter();
+	}
+	
+	/**
+	 * Elements getter which walks the underlying array by index.
+	 */
+	private class ArrayElementsGetter extends ElementsGetter{
+		
+		/**
+		 * index of the next element to be returned.
+		 */
+		private int current;
+		
+		/**
+		 * modification count of the collection at the time the getter was created or last reset.
+		 */
+		private long expectedModificationCount = modificationCount;
+		
+		@Override
+		public boolean hasNext() {
+			if(expectedModificationCount != modificationCount) {
+				throw new ConcurrentModificationException("Collection was modified.");
+			}
+			return current < size;
+		}
+		
+		@Override
+		public Object next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException("No more elements.");
+			}
+			return elements[current++];
+		}
+		
+		@Override
+		public void reset() {
+			current = 0;
+			expectedModificationCount = modificationCount;
+		}
+	}
+
+}
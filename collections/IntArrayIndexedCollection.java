@@ -0,0 +1,202 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.Arrays;
+
+/**
+ * Resizable array-backed collection of primitive <code>int</code> values.
+ * Offers the same operations as {@link ArrayIndexedCollection}, but values are kept in an <code>int[]</code>
+ * so they are never boxed, neither when stored nor when passed to an {@link IntProcessor}.
+ * Permits duplicate elements.
+ * @author Marko Benačić
+ *
+ */
+public class IntArrayIndexedCollection {
+
+	/**
+	 * default size of the underlying array. Will be used if initial capacity is not given.
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Number of elements in the array.
+	 */
+	private int size;
+
+	/**
+	 * Array containing elements of the collection.
+	 */
+	private int[] elements;
+
+	/**
+	 * Default constructor. Creates an empty collection with default capacity (which is 16).
+	 */
+	public IntArrayIndexedCollection() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty collection with given initial capacity.
+	 * @param initialCapacity specified capacity of the collection.
+	 * @throws IllegalArgumentException if capacity is less than 1.
+	 */
+	public IntArrayIndexedCollection(int initialCapacity) {
+		if(initialCapacity < 1) {
+			throw new IllegalArgumentException("initialCapacity can't be less than 1");
+		}
+
+		this.size = 0;
+		this.elements = new int[initialCapacity];
+	}
+
+	/**
+	 * Creates a collection which is a copy of given collection. Initial capacity is 16 unless given collection
+	 * is larger than 16 elements, in that case initial capacity will be the size of given collection.
+	 * @param other collection to be copied.
+	 * @throws NullPointerException if given collection is null.
+	 */
+	public IntArrayIndexedCollection(IntArrayIndexedCollection other) {
+		if(other == null) {
+			throw new NullPointerException("Given collection can't be null");
+		}
+
+		this.size = other.size;
+		this.elements = Arrays.copyOf(other.elements, Math.max(other.size, DEFAULT_CAPACITY));
+	}
+
+	/**
+	 * Adds given value into the collection at the first available slot. Complexity O(1).
+	 * @param value value to be added to the collection.
+	 */
+	public void add(int value) {
+		insert(value, size);
+	}
+
+	/**
+	 * Returns value at the index position in the collection. Complexity O(1).
+	 * @param index position in the collection from which the value will be retrieved.
+	 * @return value at indexed position
+	 * @throws IndexOutOfBoundsException if index is not within [0,size-1].
+	 */
+	public int get(int index) {
+		if(index < 0 || index > size - 1) {
+			throw new IndexOutOfBoundsException("index must be within [0, size - 1]");
+		}
+
+		return elements[index];
+	}
+
+	/**
+	 * Removes all elements from the collection. Capacity remains the same.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * insert the given value at the given position in the collection.
+	 * Average complexity O(n).
+	 * @param value value to be inserted in the collection
+	 * @param position position at which the value will be inserted, must be within [0,size] (inclusive)
+	 * @throws IndexOutOfBoundsException if index is not within [0,size] (inclusive)
+	 */
+	public void insert(int value, int position) {
+		if(position < 0 || position > size) {
+			throw new IndexOutOfBoundsException("Index must be within [0,size]");
+		}
+
+		if(size == elements.length) {
+			elements = Arrays.copyOf(elements, size*2);
+		}
+
+		if(position < size) {
+			System.arraycopy(elements, position, elements, position + 1, size - position);
+		}
+		elements[position] = value;
+		size++;
+	}
+
+	/**
+	 * Removes element from specified index from collection.
+	 * @param index position from which the element must be removed.
+	 * @throws IndexOutOfBoundsException if index is not within [0, size-1]
+	 */
+	public void remove(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index must be within [0,size-1]");
+		}
+
+		if(index < size - 1) {
+			System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+		}
+		size--;
+	}
+
+	/**
+	 * Checks if the collection has a given value. If it does, removes only the first occurrence of it.
+	 * Named differently than {@link #remove(int)}, which removes by index.
+	 * @param value value to remove from collection
+	 * @return boolean value whether element was found and removed.
+	 */
+	public boolean removeValue(int value) {
+		int index = indexOf(value);
+		if(index == -1) {
+			return false;
+		}
+		remove(index);
+		return true;
+	}
+
+	/**
+	 * returns index of the first occurrence of given value in the collection. Complexity O(n).
+	 * @param value value that we are searching for in collection.
+	 * @return index of given value. If value is not found returns -1.
+	 */
+	public int indexOf(int value) {
+		for(int i = 0; i < size; i++) {
+			if(elements[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns <code>true</code> if has no elements, <code>false</code> otherwise.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * returns number of elements in the collection.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns <code>true</code> if collection contains given value, <code>false</code> otherwise.
+	 * @param value value which we check whether it is in the collection.
+	 */
+	public boolean contains(int value) {
+		return indexOf(value) != -1;
+	}
+
+	/**
+	 * Allocates a new array filled with this collections content, and returns it.
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(elements, size);
+	}
+
+	/**
+	 * Calls IntProcessor.process for each element of the collection. Values are not boxed.
+	 * @param processor processor which will be called for each element of the collection.
+	 */
+	public void forEach(IntProcessor processor) {
+		for(int i = 0; i < size; i++) {
+			processor.process(elements[i]);
+		}
+	}
+
+}
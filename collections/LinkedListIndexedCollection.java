@@ -1,5 +1,8 @@
 package hr.fer.zemris.java.custom.collections;
 
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
 /**
  * Linked list backed array implementation of Collection class. Accepts duplicate elements, but not null elements.
  * @author Marko Benacic
@@ -14,6 +17,12 @@ public class LinkedListIndexedCollection extends Collection{
 	 */
 	private int size;
 	
+	/**
+	 * Number of structural modifications (insertions, removals and clearing) of the collection.
+	 * Used by elements getters to detect that the collection was changed while they were used.
+	 */
+	private long modificationCount;
+	
 	/**
 	 * first element in the list.
 	 */
@@ -24,6 +33,17 @@ public class LinkedListIndexedCollection extends Collection{
 	 */
 	private ListNode last;
 	
+	/**
+	 * node visited by the last positional operation, used as a third starting point for walking the list.
+	 * <code>null</code> if there is no such node.
+	 */
+	private ListNode finger;
+	
+	/**
+	 * index of the <code>finger</code> node.
+	 */
+	private int fingerIndex;
+	
 	
 	/**
 	 * private static class representing a node in our linked list implementation
@@ -68,7 +88,9 @@ public class LinkedListIndexedCollection extends Collection{
 	}
 	
 	/**
-	 * retrieves object from collection at the given index. Complexity O(n/2 + 1).
+	 * retrieves object from collection at the given index. Complexity O(d + 1), where d is the distance from
+	 * the closest of first element, last element and the last visited element, so accessing elements in order
+	 * is O(1) per call.
 	 * @param index index from which the element will be retrieved;
 	 * @return Object at given index in the collection.
 	 */
@@ -77,19 +99,7 @@ public class LinkedListIndexedCollection extends Collection{
 			throw new IndexOutOfBoundsException("given index must be within range [0,size-1]");
 		}
 		
-		if((size - index) >= index ) {
-			ListNode current = first;
-			for(int i = 0; i < index; i++) {
-				current = current.next;
-			}
-			return current.value;
-		}else {
-			ListNode current = last;
-			for(int i = size - 1; i > index; i--) {
-				current = current.previous;
-			}
-			return current.value;
-		}
+		return nodeAt(index).value;
 	}
 	
 	/**
@@ -97,12 +107,14 @@ public class LinkedListIndexedCollection extends Collection{
 	 */
 	@Override
 	public void clear() {
-		first = last = null;
+		first = last = finger = null;
 		size = 0;
+		modificationCount++;
 	}
 	
 	/**
-	 * Insert value at given position in the collection. Average complexity O(n/2 + 1).
+	 * Insert value at given position in the collection. Complexity O(d + 1), where d is the distance from the
+	 * closest of first element, last element and the last visited element.
 	 * @param value element to be inserted
 	 * @param position position in collection at which the element is inserted.
 	 * @throws NullPointerException if given value is <code>null</code>.
@@ -115,55 +127,37 @@ public class LinkedListIndexedCollection extends Collection{
 		if(position < 0 || position > size) {
 			throw new IndexOutOfBoundsException("Position must be within range [0,size]");
 		}
+		ListNode newNode = new ListNode();
+		newNode.value = value;
+		
 		if(size == 0) {
-			ListNode newNode = new ListNode();
-			newNode.value = value;
 			first = newNode;
 			last = newNode;
 			
 		}else if(position == size) {
-			ListNode newNode= new ListNode();
-			newNode.value = value;
 			newNode.previous = last;
-			newNode.next = null;
 			last.next = newNode;
 			last = newNode;
 			
-		}else if(position == 0) {
-			ListNode newNode = new ListNode();
-			newNode.value = value;
-			newNode.previous = null;
-			newNode.next = first;
-			first.previous = newNode;
-			first = newNode;
 		}else {
-			if((size - position) >= position ) {
-				ListNode current = first;
-				for(int i = 0; i < position; i++) {
-					current = current.next;
-				}
-				ListNode newNode = new ListNode();
-				newNode.value = value;
-				newNode.previous = current.previous;
-				newNode.next = current;
+			ListNode current = nodeAt(position);
+			newNode.previous = current.previous;
+			newNode.next = current;
+			if(current.previous == null) {
+				first = newNode;
+			}else {
 				current.previous.next = newNode;
-				current.previous = newNode;
-			}else {								
-				ListNode current = last;
-				for(int i = size - 1; i > position; i--) {
-					current = current.previous;
-				}
-				ListNode newNode = new ListNode();
-				newNode.value = value;
-				newNode.previous = current.previous;
-				newNode.next = current;
-				current.previous.next = newNode;
-				current.previous = newNode;				// shvacam da se malo ponavlja kod, 
-														//al ovako mi je ljepse nego da šaljem u novu metodu.
 			}
+			current.previous = newNode;
 		}
 		size++;
+		modificationCount++;
+		if(CollectionMetrics.ENABLED) {
+			CollectionMetrics.recordSize(size);
+		}
 		
+		finger = newNode;
+		fingerIndex = position;
 	}
 	
 	/**
@@ -180,15 +174,22 @@ public class LinkedListIndexedCollection extends Collection{
 		ListNode current = first;
 		for(int i = 0; i < size; i++) {
 			if(current.value.equals(value)) {
+				if(CollectionMetrics.ENABLED) {
+					CollectionMetrics.recordSearch(i + 1);
+				}
 				return i;
 			}
 			current = current.next;
 		}
+		if(CollectionMetrics.ENABLED) {
+			CollectionMetrics.recordSearch(size);
+		}
 		return -1;
 	}
 	
 	/**
-	 * removes element from collection at the given index.
+	 * removes element from collection at the given index. Complexity O(d + 1), where d is the distance from the
+	 * closest of first element, last element and the last visited element.
 	 * @param index position from which the element is removed.
 	 * @throws IndexOutOfBoundsException if given index is not within range [0, size - 1].
 	 */
@@ -196,26 +197,73 @@ public class LinkedListIndexedCollection extends Collection{
 		if(index < 0 || index >= size) {
 			throw new IndexOutOfBoundsException("index must be within range [0, size - 1]");
 		}
-		if(index == 0) {
-			first = first.next;
-			first.previous = null;
-			size--;
-			return;
+		ListNode current = nodeAt(index);
+		
+		if(current.previous == null) {
+			first = current.next;
+		}else {
+			current.previous.next = current.next;
 		}
-		if(index == size - 1) {
-			last = last.previous;
-			last.next = null;
-			size--;
-			return;
+		if(current.next == null) {
+			last = current.previous;
+		}else {
+			current.next.previous = current.previous;
 		}
-		ListNode current = first.next;
-		for(int i = 1; i < index - 1; i++) {
-			current = current.next;
+		size--;
+		modificationCount++;
+		
+		// element after the removed one now has the same index
+		if(current.next != null) {
+			finger = current.next;
+			fingerIndex = index;
+		}else {
+			finger = current.previous;
+			fingerIndex = index - 1;
+		}
+	}
+	
+	/**
+	 * Removes all elements which satisfy the given tester in a single walk through the list, unlinking each
+	 * matching node in place. If the tester throws, elements tested so far are removed and the rest are kept.
+	 * Complexity O(n).
+	 * @param tester Tester deciding which elements are removed.
+	 * @return <code>true</code> if any element was removed, <code>false</code> otherwise.
+	 * @throws NullPointerException if given tester is <code>null</code>.
+	 */
+	@Override
+	public boolean removeIf(Tester tester) {
+		if(tester == null) {
+			throw new NullPointerException("Tester can not be null!");
 		}
-		current.previous.next = current.next;
-		current.next.previous = current.previous;
 		
-		size--;
+		int removed = 0;
+		try {
+			ListNode current = first;
+			while(current != null) {
+				ListNode next = current.next;
+				if(tester.test(current.value)) {
+					if(current.previous == null) {
+						first = next;
+					}else {
+						current.previous.next = next;
+					}
+					if(next == null) {
+						last = current.previous;
+					}else {
+						next.previous = current.previous;
+					}
+					size--;
+					removed++;
+				}
+				current = next;
+			}
+		}finally {
+			if(removed > 0) {
+				modificationCount++;
+				finger = null;
+			}
+		}
+		return removed > 0;
 	}
 	
 	@Override
@@ -242,10 +290,16 @@ public class LinkedListIndexedCollection extends Collection{
 		ListNode current = first;
 		for(int i = 0; i < size; i++) {
 			if(current.value.equals(value)) {
+				if(CollectionMetrics.ENABLED) {
+					CollectionMetrics.recordSearch(i + 1);
+				}
 				return true;
 			}
 			current = current.next;
 		}
+		if(CollectionMetrics.ENABLED) {
+			CollectionMetrics.recordSearch(size);
+		}
 		return false;
 	}
 	
@@ -268,9 +322,13 @@ public class LinkedListIndexedCollection extends Collection{
 	 */
 	@Override
 	public Object[] toArray() {
-		
-		ArrayIndexedCollection array = new ArrayIndexedCollection(this, size);
-		return array.toArray();
+		Object[] array = new Object[size];
+		ListNode current = first;
+		for(int i = 0; i < size; i++) {
+			array[i] = current.value;
+			current = current.next;
+		}
+		return array;
 	}
 	
 	@Override
@@ -283,5 +341,95 @@ public class LinkedListIndexedCollection extends Collection{
 		}
 	}
 	
+	/**
+	 * Returns the node at given index, walking from whichever of first node, last node and finger is closest.
+	 * Found node becomes the new finger.
+	 * @param index index of the node, must be within range [0, size - 1].
+	 */
+	private ListNode nodeAt(int index) {
+		ListNode current;
+		int distanceFromFinger = finger == null ? Integer.MAX_VALUE : Math.abs(index - fingerIndex);
+		
+		if(distanceFromFinger <= index && distanceFromFinger < size - 1 - index) {
+			current = finger;
+			if(index > fingerIndex) {
+				for(int i = fingerIndex; i < index; i++) {
+					current = current.next;
+				}
+			}else {
+				for(int i = fingerIndex; i > index; i--) {
+					current = current.previous;
+				}
+			}
+		}else if((size - index) >= index ) {
+			current = first;
+			for(int i = 0; i < index; i++) {
+				current = current.next;
+			}
+		}else {
+			current = last;
+			for(int i = size - 1; i > index; i--) {
+				current = current.previous;
+			}
+		}
+		
+		if(CollectionMetrics.ENABLED) {
+			int walkedFromStart = (size - index) >= index ? index : size - 1 - index;
+			boolean fromFinger = distanceFromFinger <= index && distanceFromFinger < size - 1 - index;
+			CollectionMetrics.recordLookup(fromFinger ? distanceFromFinger : walkedFromStart);
+		}
+		
+		finger = current;
+		fingerIndex = index;
+		return current;
+	}
+	
+	/**
+	 * Creates a new elements getter over this collection. Each step of the getter is O(1).
+	 */
+	@Override
+	public ElementsGetter createElementsGetter() {
+		return new LinkedListElementsGetter();
+	}
+	
+	/**
+	 * Elements getter which follows the <code>next</code> references.
+	 */
+	private class LinkedListElementsGetter extends ElementsGetter{
+		
+		/**
+		 * node of the next element to be returned, <code>null</code> if there are no more elements.
+		 */
+		private ListNode node = first;
+		
+		/**
+		 * modification count of the collection at the time the getter was created or last reset.
+		 */
+		private long expectedModificationCount = modificationCount;
+		
+		@Override
+		public boolean hasNext() {
+			if(expectedModificationCount != modificationCount) {
+				throw new ConcurrentModificationException("Collection was modified.");
+			}
+			return node != null;
+		}
+		
+		@Override
+		public Object next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException("No more elements.");
+			}
+			Object value = node.value;
+			node = node.next;
+			return value;
+		}
+		
+		@Override
+		public void reset() {
+			node = first;
+			expectedModificationCount = modificationCount;
+		}
+	}
 	
 }
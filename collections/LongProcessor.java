@@ -0,0 +1,19 @@
+package hr.fer.zemris.java.custom.collections;
+/**
+ * Primitive <code>long</code> counterpart of {@link Processor}. Used by {@link LongArrayIndexedCollection#forEach(LongProcessor)}
+ * so that elements are passed to the processor without being boxed.
+ * Contains only one method; <code>process</code>, which should be implemented and overridden by another class.
+ *
+ * @author Marko Benačić
+ *
+ */
+public class LongProcessor {
+
+	/**
+	 * Method that performs some operation with the passed value. Needs to be overridden and implemented.
+	 * @param value long value over which the implemented operation will be made.
+	 */
+	public void process(long value) {
+	}
+
+}
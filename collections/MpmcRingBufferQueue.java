@@ -0,0 +1,291 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded FIFO queue of Objects for any number of producer and consumer threads, backed by a ring buffer whose
+ * capacity is a power of two. Operations take no locks.
+ * <p>
+ * Every slot has its own sequence number saying whose turn it is: a slot whose sequence equals position p is
+ * free for the producer of position p, and one whose sequence equals p + 1 holds the element of position p for
+ * its consumer. Producers claim positions by a compare-and-set on the tail and consumers on the head, then
+ * write or read the slot and hand it over by advancing its sequence. Threads therefore contend only on the head
+ * or tail counter, which are padded into separate cache lines, while slot handovers are independent of each other.
+ * <p>
+ * Batch methods claim a whole range of consecutive positions with a single compare-and-set, so a batch of k
+ * elements costs one contended operation instead of k.
+ *
+ * @author Marko Benačić
+ *
+ */
+public class MpmcRingBufferQueue {
+
+	/**
+	 * default capacity. Will be used if capacity is not given.
+	 */
+	private static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * Slots of the ring buffer. Element at position p is in slot p &amp; mask.
+	 */
+	private final Object[] slots;
+
+	/**
+	 * Sequence number of each slot. Reading it makes the slot's content written before it visible.
+	 */
+	private final AtomicLongArray sequences;
+
+	private final int mask;
+
+	/**
+	 * Position of the next element to be taken.
+	 */
+	private final Sequence head = new Sequence(0);
+
+	/**
+	 * Position of the next element to be added.
+	 */
+	private final Sequence tail = new Sequence(0);
+
+	/**
+	 * Default constructor. Creates an empty queue with default capacity (which is 1024).
+	 */
+	public MpmcRingBufferQueue() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty queue with at least given capacity, rounded up to a power of two (and at least 2).
+	 * @param capacity specified capacity of the queue.
+	 * @throws IllegalArgumentException if capacity is less than 1 or greater than 2^30.
+	 */
+	public MpmcRingBufferQueue(int capacity) {
+		if(capacity < 1 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("capacity must be within [1, 2^30]");
+		}
+		// with a single slot, "free for position p + 1" and "full with position p" would be the same sequence
+		int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+		this.slots = new Object[size];
+		this.sequences = new AtomicLongArray(size);
+		this.mask = size - 1;
+		for(int i = 0; i < size; i++) {
+			sequences.lazySet(i, i);
+		}
+	}
+
+	/**
+	 * Adds value at the tail of the queue, if there is room.
+	 * @param value value to be added.
+	 * @return <code>true</code> if value was added, <code>false</code> if the queue is full.
+	 * @throws IllegalArgumentException if given value is <code>null</code>.
+	 */
+	public boolean offer(Object value) {
+		if(value == null) {
+			throw new IllegalArgumentException("Can not add null to queue");
+		}
+		long position = tail.get();
+		while(true) {
+			int index = (int) position & mask;
+			long difference = sequences.get(index) - position;
+			if(difference == 0) {
+				if(tail.compareAndSet(position, position + 1)) {
+					slots[index] = value;
+					sequences.lazySet(index, position + 1);
+					return true;
+				}
+				position = tail.get();
+			}else if(difference < 0) {
+				// slot still holds the element from one lap ago
+				return false;
+			}else {
+				position = tail.get();
+			}
+		}
+	}
+
+	/**
+	 * Adds elements of the given collection at the tail of the queue, in order, as long as there is room.
+	 * All added elements get consecutive positions, claimed with one compare-and-set, so elements of other
+	 * producers are never interleaved with them.
+	 * @param values collection whose elements are added.
+	 * @return number of elements added, less than the size of the collection if the queue became full.
+	 * @throws IllegalArgumentException if given collection is <code>null</code> or contains <code>null</code>.
+	 */
+	public int offerAll(Collection values) {
+		if(values == null) {
+			throw new IllegalArgumentException("Given collection can't be null");
+		}
+		Object[] elements = values.toArray();
+		for(int i = 0; i < elements.length; i++) {
+			if(elements[i] == null) {
+				throw new IllegalArgumentException("Can not add null to queue");
+			}
+		}
+		if(elements.length == 0) {
+			return 0;
+		}
+
+		while(true) {
+			long position = tail.get();
+			int count = 0;
+			while(count < elements.length && count < slots.length
+					&& sequences.get((int) (position + count) & mask) == position + count) {
+				count++;
+			}
+			if(count == 0) {
+				if(sequences.get((int) position & mask) < position) {
+					return 0;
+				}
+				// another producer moved the tail meanwhile
+				continue;
+			}
+			if(tail.compareAndSet(position, position + count)) {
+				for(int i = 0; i < count; i++) {
+					int index = (int) (position + i) & mask;
+					slots[index] = elements[i];
+					sequences.lazySet(index, position + i + 1);
+				}
+				return count;
+			}
+		}
+	}
+
+	/**
+	 * Removes and returns the element at the head of the queue.
+	 * @return removed element, or <code>null</code> if the queue is empty.
+	 */
+	public Object poll() {
+		long position = head.get();
+		while(true) {
+			int index = (int) position & mask;
+			long difference = sequences.get(index) - (position + 1);
+			if(difference == 0) {
+				if(head.compareAndSet(position, position + 1)) {
+					Object value = slots[index];
+					slots[index] = null;
+					sequences.lazySet(index, position + slots.length);
+					return value;
+				}
+				position = head.get();
+			}else if(difference < 0) {
+				// element of this position is not published yet
+				return null;
+			}else {
+				position = head.get();
+			}
+		}
+	}
+
+	/**
+	 * Removes all elements currently available and gives them to the processor, in order.
+	 * @param processor Processor which is given each removed element.
+	 * @return number of removed elements.
+	 */
+	public int drain(Processor processor) {
+		return drain(processor, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Removes at most <code>maxElements</code> consecutive elements from the head of the queue, claimed with a
+	 * single compare-and-set, and gives them to the processor in order. Each slot is handed back to producers
+	 * as soon as its element is read, before it is processed. Claimed elements can not be put back, because other
+	 * consumers may already have moved past them, so if the processor throws, the remaining claimed elements are
+	 * still given to it, and then the first exception is rethrown with the later ones added as suppressed.
+	 * Only an Error stops processing and discards the remaining claimed elements.
+	 * @param processor Processor which is given each removed element.
+	 * @param maxElements largest number of elements to remove.
+	 * @return number of removed elements.
+	 * @throws IllegalArgumentException if processor is <code>null</code> or maxElements is negative.
+	 * @throws RuntimeException the first exception thrown by the processor, after all claimed elements were
+	 * processed.
+	 */
+	public int drain(Processor processor, int maxElements) {
+		if(processor == null) {
+			throw new IllegalArgumentException("Processor can not be null");
+		}
+		if(maxElements < 0) {
+			throw new IllegalArgumentException("maxElements can't be negative");
+		}
+
+		while(true) {
+			long position = head.get();
+			int count = 0;
+			while(count < maxElements && count < slots.length
+					&& sequences.get((int) (position + count) & mask) == position + count + 1) {
+				count++;
+			}
+			if(count == 0) {
+				if(maxElements == 0 || sequences.get((int) position & mask) < position + 1) {
+					return 0;
+				}
+				// another consumer moved the head meanwhile
+				continue;
+			}
+			if(head.compareAndSet(position, position + count)) {
+				RuntimeException failure = null;
+				int released = 0;
+				try {
+					while(released < count) {
+						int index = (int) (position + released) & mask;
+						Object value = slots[index];
+						slots[index] = null;
+						sequences.lazySet(index, position + released + slots.length);
+						released++;
+						try {
+							processor.process(value);
+						}catch(RuntimeException e) {
+							if(failure == null) {
+								failure = e;
+							}else if(failure != e) {
+								failure.addSuppressed(e);
+							}
+						}
+					}
+				}finally {
+					// an Error stopped processing, release the rest so that producers are not blocked
+					for(; released < count; released++) {
+						int index = (int) (position + released) & mask;
+						slots[index] = null;
+						sequences.lazySet(index, position + released + slots.length);
+					}
+				}
+				if(failure != null) {
+					throw failure;
+				}
+				return count;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of elements in the queue, including those whose producers claimed a position but did
+	 * not finish writing. The answer may be stale if other threads are using the queue.
+	 * @return number of elements in the queue.
+	 */
+	public int size() {
+		while(true) {
+			long before = head.get();
+			long end = tail.get();
+			if(head.get() == before) {
+				return (int) Math.max(0, Math.min(end - before, slots.length));
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the queue has no elements. The answer may be stale if other threads are using the queue.
+	 * @return <code>true</code> if queue has no elements, <code>false</code> otherwise
+	 */
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Returns the largest number of elements the queue can hold.
+	 * @return capacity of the queue.
+	 */
+	public int capacity() {
+		return slots.length;
+	}
+
+}
@@ -0,0 +1,519 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable indexed collection. Instead of changing the vector, <code>plus</code>, <code>set</code>,
+ * <code>pop</code>, <code>insertAt</code> and <code>removeAt</code> return a new version, and the old version
+ * stays valid and unchanged. Versions share most of their structure, so keeping many of them is cheap.
+ * <p>
+ * Elements are stored in a trie of 32-element arrays, with the last (up to) 32 elements kept in a separate tail
+ * array. <code>get</code> reads at most log<sub>32</sub>(n) + 1 arrays, which is at most 7 for any size.
+ * <code>plus</code> and <code>pop</code> copy only the tail in 31 of 32 cases, and otherwise a single path of
+ * the trie; <code>set</code> copies a single path. <code>insertAt</code> and <code>removeAt</code> at other
+ * positions than the end have to move all following elements and rebuild the vector in O(n).
+ * <p>
+ * All fields are final and arrays are never changed after a version is published, so any number of threads
+ * can read a version without locking. A writer can publish snapshots by storing each new version in a
+ * <code>volatile</code> field, and readers take whichever version is current: taking a snapshot costs nothing.
+ * <p>
+ * Methods of {@link Collection} which would change the collection throw UnsupportedOperationException.
+ * Permits duplicate elements but not <code>null</code> references.
+ *
+ * @author Marko Benačić
+ *
+ */
+public final class PersistentVector extends Collection {
+
+	/**
+	 * Number of bits of an index used on each level of the trie.
+	 */
+	private static final int BITS = 5;
+
+	/**
+	 * Number of slots in each array of the trie.
+	 */
+	private static final int WIDTH = 1 << BITS;
+
+	private static final int MASK = WIDTH - 1;
+
+	private static final Object[] EMPTY_NODE = new Object[WIDTH];
+
+	private static final PersistentVector EMPTY = new PersistentVector(0, BITS, EMPTY_NODE, new Object[0]);
+
+	/**
+	 * Number of elements in the vector.
+	 */
+	private final int size;
+
+	/**
+	 * Number of index bits below the root level of the trie.
+	 */
+	private final int shift;
+
+	/**
+	 * Root of the trie holding all elements except those in the tail.
+	 */
+	private final Object[] root;
+
+	/**
+	 * Last elements of the vector, at most 32.
+	 */
+	private final Object[] tail;
+
+	private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+		this.size = size;
+		this.shift = shift;
+		this.root = root;
+		this.tail = tail;
+	}
+
+	/**
+	 * Returns the empty vector.
+	 * @return empty vector.
+	 */
+	public static PersistentVector empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Creates a vector holding elements of the given collection, in order. The trie is built directly from the
+	 * collection's array, in O(n).
+	 * @param other collection whose elements are copied.
+	 * @return new vector.
+	 * @throws NullPointerException if given collection is <code>null</code> or contains <code>null</code>.
+	 */
+	public static PersistentVector from(Collection other) {
+		if(other == null) {
+			throw new NullPointerException("Given collection can't be null");
+		}
+		if(other instanceof PersistentVector) {
+			return (PersistentVector) other;
+		}
+		Object[] elements = other.toArray();
+		for(int i = 0; i < elements.length; i++) {
+			if(elements[i] == null) {
+				throw new NullPointerException("Value can not be null!");
+			}
+		}
+		return build(elements);
+	}
+
+	/**
+	 * Returns object at the index position in the vector. Complexity O(log<sub>32</sub> n).
+	 * @param index position in the vector from which the object will be retrieved.
+	 * @return object at indexed position
+	 * @throws IndexOutOfBoundsException if index is not within [0,size-1].
+	 */
+	public Object get(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index must be within [0, size - 1]");
+		}
+		return arrayFor(index)[index & MASK];
+	}
+
+	/**
+	 * Returns a new vector with given value added at the end.
+	 * @param value object to be added.
+	 * @return new vector.
+	 * @throws NullPointerException if given value is <code>null</code>.
+	 */
+	public PersistentVector plus(Object value) {
+		if(value == null) {
+			throw new NullPointerException("Value can not be null!");
+		}
+
+		if(size - tailOffset() < WIDTH) {
+			Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+			newTail[tail.length] = value;
+			return new PersistentVector(size + 1, shift, root, newTail);
+		}
+
+		// tail is full, it moves into the trie
+		Object[] newRoot;
+		int newShift = shift;
+		if((size >>> BITS) > (1 << shift)) {
+			newRoot = new Object[WIDTH];
+			newRoot[0] = root;
+			newRoot[1] = newPath(shift, tail);
+			newShift += BITS;
+		}else {
+			newRoot = pushTail(size, shift, root, tail);
+		}
+		return new PersistentVector(size + 1, newShift, newRoot, new Object[] {value});
+	}
+
+	/**
+	 * Returns a new vector with the element at given index replaced by given value.
+	 * @param index position of the replaced element.
+	 * @param value new value.
+	 * @return new vector.
+	 * @throws NullPointerException if given value is <code>null</code>.
+	 * @throws IndexOutOfBoundsException if index is not within [0,size-1].
+	 */
+	public PersistentVector set(int index, Object value) {
+		if(value == null) {
+			throw new NullPointerException("Value can not be null!");
+		}
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index must be within [0, size - 1]");
+		}
+
+		if(index >= tailOffset()) {
+			Object[] newTail = tail.clone();
+			newTail[index & MASK] = value;
+			return new PersistentVector(size, shift, root, newTail);
+		}
+		return new PersistentVector(size, shift, set(shift, root, index, value), tail);
+	}
+
+	/**
+	 * Returns a new vector without the last element.
+	 * @return new vector.
+	 * @throws IllegalStateException if the vector is empty.
+	 */
+	public PersistentVector pop() {
+		if(size == 0) {
+			throw new IllegalStateException("Vector is empty.");
+		}
+		if(size == 1) {
+			return EMPTY;
+		}
+
+		if(size - tailOffset() > 1) {
+			return new PersistentVector(size - 1, shift, root, Arrays.copyOf(tail, tail.length - 1));
+		}
+
+		// tail becomes empty, the last array of the trie becomes the new tail
+		Object[] newTail = arrayFor(size - 2);
+		Object[] newRoot = popTail(size, shift, root);
+		int newShift = shift;
+		if(newRoot == null) {
+			newRoot = EMPTY_NODE;
+		}
+		if(shift > BITS && newRoot[1] == null) {
+			newRoot = (Object[]) newRoot[0];
+			newShift -= BITS;
+		}
+		return new PersistentVector(size - 1, newShift, newRoot, newTail);
+	}
+
+	/**
+	 * Returns a new vector with given value inserted at given position. Inserting at the end is as cheap as
+	 * <code>plus</code>; anywhere else the vector is rebuilt in O(n).
+	 * @param value object to be inserted.
+	 * @param position position at which the value will be inserted, must be within [0,size] (inclusive)
+	 * @return new vector.
+	 * @throws NullPointerException if given value is <code>null</code>.
+	 * @throws IndexOutOfBoundsException if position is not within [0,size] (inclusive)
+	 */
+	public PersistentVector insertAt(Object value, int position) {
+		if(value == null) {
+			throw new NullPointerException("Value can not be null!");
+		}
+		if(position < 0 || position > size) {
+			throw new IndexOutOfBoundsException("Index must be within [0,size]");
+		}
+		if(position == size) {
+			return plus(value);
+		}
+
+		Object[] elements = new Object[size + 1];
+		copyTo(elements);
+		System.arraycopy(elements, position, elements, position + 1, size - position);
+		elements[position] = value;
+		return build(elements);
+	}
+
+	/**
+	 * Returns a new vector without the element at given index. Removing the last element is as cheap as
+	 * <code>pop</code>; anywhere else the vector is rebuilt in O(n).
+	 * @param index position of the removed element.
+	 * @return new vector.
+	 * @throws IndexOutOfBoundsException if index is not within [0,size-1].
+	 */
+	public PersistentVector removeAt(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index must be within [0,size-1]");
+		}
+		if(index == size - 1) {
+			return pop();
+		}
+
+		Object[] elements = toArray();
+		System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+		return build(Arrays.copyOf(elements, size - 1));
+	}
+
+	/**
+	 * Returns index within the vector of given value. Search is based on equals method. Complexity O(n).
+	 * @param value element that we are searching for.
+	 * @return index of given element, or -1 if element is not found.
+	 */
+	public int indexOf(Object value) {
+		for(int start = 0; start < size; start += WIDTH) {
+			Object[] array = arrayFor(start);
+			for(int i = 0, count = Math.min(WIDTH, size - start); i < count; i++) {
+				if(array[i].equals(value)) {
+					return start + i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public boolean contains(Object value) {
+		return indexOf(value) != -1;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Allocates a new array filled with elements of the vector, copying 32 elements at a time.
+	 */
+	@Override
+	public Object[] toArray() {
+		Object[] elements = new Object[size];
+		copyTo(elements);
+		return elements;
+	}
+
+	@Override
+	public void forEach(Processor processor) {
+		for(int start = 0; start < size; start += WIDTH) {
+			Object[] array = arrayFor(start);
+			for(int i = 0, count = Math.min(WIDTH, size - start); i < count; i++) {
+				processor.process(array[i]);
+			}
+		}
+	}
+
+	/**
+	 * Always throws, vector can not be changed. Use <code>plus</code> instead.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public void add(Object value) {
+		throw new UnsupportedOperationException("PersistentVector can not be changed, use plus.");
+	}
+
+	/**
+	 * Always throws, vector can not be changed. Use <code>from</code> or <code>plus</code> instead.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public void addAll(Collection other) {
+		throw new UnsupportedOperationException("PersistentVector can not be changed, use from or plus.");
+	}
+
+	/**
+	 * Always throws, vector can not be changed. Use <code>removeAt</code> instead.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public boolean remove(Object value) {
+		throw new UnsupportedOperationException("PersistentVector can not be changed, use removeAt.");
+	}
+
+	/**
+	 * Always throws, vector can not be changed. Use <code>empty</code> instead.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public void clear() {
+		throw new UnsupportedOperationException("PersistentVector can not be changed, use empty.");
+	}
+
+	/**
+	 * Always throws, vector can not be changed.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public boolean removeIf(Tester tester) {
+		throw new UnsupportedOperationException("PersistentVector can not be changed.");
+	}
+
+	/**
+	 * Creates a new elements getter over this vector. Since the vector never changes, the getter never throws
+	 * ConcurrentModificationException. Each step of the getter is O(1).
+	 */
+	@Override
+	public ElementsGetter createElementsGetter() {
+		return new VectorElementsGetter();
+	}
+
+	/**
+	 * Index of the first element in the tail.
+	 */
+	private int tailOffset() {
+		return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+	}
+
+	/**
+	 * Returns the array holding the element at given index.
+	 */
+	private Object[] arrayFor(int index) {
+		if(index >= tailOffset()) {
+			return tail;
+		}
+		Object[] node = root;
+		for(int level = shift; level > 0; level -= BITS) {
+			node = (Object[]) node[(index >>> level) & MASK];
+		}
+		return node;
+	}
+
+	/**
+	 * Copies all elements into the given array, which must have at least <code>size</code> slots.
+	 */
+	private void copyTo(Object[] destination) {
+		int tailOffset = tailOffset();
+		for(int start = 0; start < tailOffset; start += WIDTH) {
+			System.arraycopy(arrayFor(start), 0, destination, start, WIDTH);
+		}
+		System.arraycopy(tail, 0, destination, tailOffset, size - tailOffset);
+	}
+
+	/**
+	 * Builds a vector from the given array, which must not contain <code>null</code>, by pushing full 32-element
+	 * arrays into the trie directly.
+	 */
+	private static PersistentVector build(Object[] elements) {
+		int size = elements.length;
+		if(size == 0) {
+			return EMPTY;
+		}
+
+		int tailOffset = size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+		Object[] root = EMPTY_NODE;
+		int shift = BITS;
+		for(int start = 0; start < tailOffset; start += WIDTH) {
+			Object[] leaf = Arrays.copyOfRange(elements, start, start + WIDTH);
+			int count = start + WIDTH;
+			if((count >>> BITS) > (1 << shift)) {
+				Object[] newRoot = new Object[WIDTH];
+				newRoot[0] = root;
+				newRoot[1] = newPath(shift, leaf);
+				root = newRoot;
+				shift += BITS;
+			}else {
+				root = pushTail(count, shift, root, leaf);
+			}
+		}
+		return new PersistentVector(size, shift, root, Arrays.copyOfRange(elements, tailOffset, size));
+	}
+
+	/**
+	 * Returns a copy of the node with the full leaf added as the last array of the trie.
+	 * @param count number of elements in the trie, including the added leaf.
+	 */
+	private static Object[] pushTail(int count, int level, Object[] node, Object[] leaf) {
+		Object[] copy = node.clone();
+		int index = ((count - 1) >>> level) & MASK;
+		if(level == BITS) {
+			copy[index] = leaf;
+		}else {
+			Object[] child = (Object[]) node[index];
+			copy[index] = child != null ? pushTail(count, level - BITS, child, leaf) : newPath(level - BITS, leaf);
+		}
+		return copy;
+	}
+
+	/**
+	 * Creates a chain of nodes leading from given level down to the leaf.
+	 */
+	private static Object[] newPath(int level, Object[] leaf) {
+		if(level == 0) {
+			return leaf;
+		}
+		Object[] node = new Object[WIDTH];
+		node[0] = newPath(level - BITS, leaf);
+		return node;
+	}
+
+	/**
+	 * Returns a copy of the node with the last array of the trie removed, or <code>null</code> if the node
+	 * becomes empty.
+	 * @param count number of elements in the vector before popping.
+	 */
+	private static Object[] popTail(int count, int level, Object[] node) {
+		int index = ((count - 2) >>> level) & MASK;
+		if(level > BITS) {
+			Object[] child = popTail(count, level - BITS, (Object[]) node[index]);
+			if(child == null && index == 0) {
+				return null;
+			}
+			Object[] copy = node.clone();
+			copy[index] = child;
+			return copy;
+		}
+		if(index == 0) {
+			return null;
+		}
+		Object[] copy = node.clone();
+		copy[index] = null;
+		return copy;
+	}
+
+	/**
+	 * Returns a copy of the path to the element at given index, with the element replaced.
+	 */
+	private static Object[] set(int level, Object[] node, int index, Object value) {
+		Object[] copy = node.clone();
+		if(level == 0) {
+			copy[index & MASK] = value;
+		}else {
+			int child = (index >>> level) & MASK;
+			copy[child] = set(level - BITS, (Object[]) node[child], index, value);
+		}
+		return copy;
+	}
+
+	/**
+	 * Elements getter which walks the vector one 32-element array at a time.
+	 */
+	private class VectorElementsGetter extends ElementsGetter {
+
+		/**
+		 * index of the next element to be returned.
+		 */
+		private int current;
+
+		/**
+		 * array holding the next element.
+		 */
+		private Object[] array;
+
+		@Override
+		public boolean hasNext() {
+			return current < size;
+		}
+
+		@Override
+		public Object next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException("No more elements.");
+			}
+			if((current & MASK) == 0) {
+				array = arrayFor(current);
+			}
+			return array[current++ & MASK];
+		}
+
+		@Override
+		public void reset() {
+			current = 0;
+		}
+	}
+
+}
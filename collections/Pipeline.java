@@ -0,0 +1,316 @@
+package hr.fer.zemris.java.custom.collections;
+
+/**
+ * Lazy description of a multi-stage job over the elements of a {@link Collection}, created by
+ * {@link Collection#pipeline()}. Intermediate stages (<code>filter</code>, <code>map</code>, <code>limit</code>)
+ * only record what should be done and return a new pipeline. Nothing is computed until a terminal operation
+ * (<code>forEach</code>, <code>reduce</code>, <code>collectInto</code>, <code>count</code>) is called.
+ * <p>
+ * A terminal operation fuses all stages into one chain and makes a single pass over the source collection with
+ * its {@link ElementsGetter}. Each element flows through all stages before the next one is taken, and no
+ * intermediate collections are created. Once a <code>limit</code> is reached the pass stops, so remaining
+ * elements of the source are never read.
+ * <p>
+ * Pipelines are immutable and can be run any number of times; every run sees the current content of the source.
+ * The source must not be modified while a terminal operation runs, otherwise ConcurrentModificationException
+ * is thrown.
+ *
+ * @author Marko Benačić
+ *
+ */
+public class Pipeline {
+
+	/**
+	 * Collection whose elements are processed.
+	 */
+	private final Collection source;
+
+	/**
+	 * Pipeline this one was created from, <code>null</code> for the pipeline directly over the source.
+	 */
+	private final Pipeline upstream;
+
+	/**
+	 * Last stage of this pipeline, <code>null</code> for the pipeline directly over the source.
+	 */
+	private final Stage stage;
+
+	/**
+	 * Creates a pipeline over given collection, with no stages.
+	 * @param source collection whose elements are processed.
+	 * @throws NullPointerException if given collection is <code>null</code>.
+	 */
+	public Pipeline(Collection source) {
+		if(source == null) {
+			throw new NullPointerException("Given collection can't be null");
+		}
+		this.source = source;
+		this.upstream = null;
+		this.stage = null;
+	}
+
+	/**
+	 * Creates a pipeline which adds given stage after all stages of the upstream pipeline.
+	 */
+	private Pipeline(Pipeline upstream, Stage stage) {
+		this.source = upstream.source;
+		this.upstream = upstream;
+		this.stage = stage;
+	}
+
+	/**
+	 * Returns a pipeline which passes on only elements which satisfy the given tester.
+	 * @param tester Tester deciding which elements are kept.
+	 * @return new pipeline.
+	 * @throws NullPointerException if given tester is <code>null</code>.
+	 */
+	public Pipeline filter(Tester tester) {
+		if(tester == null) {
+			throw new NullPointerException("Tester can not be null!");
+		}
+		return new Pipeline(this, new FilterStage(tester));
+	}
+
+	/**
+	 * Returns a pipeline which passes on the result of the given transformer for each element.
+	 * @param transformer Transformer applied to each element.
+	 * @return new pipeline.
+	 * @throws NullPointerException if given transformer is <code>null</code>.
+	 */
+	public Pipeline map(Transformer transformer) {
+		if(transformer == null) {
+			throw new NullPointerException("Transformer can not be null!");
+		}
+		return new Pipeline(this, new MapStage(transformer));
+	}
+
+	/**
+	 * Returns a pipeline which passes on at most <code>maxSize</code> elements, and then stops the pass.
+	 * @param maxSize largest number of elements passed on.
+	 * @return new pipeline.
+	 * @throws IllegalArgumentException if maxSize is negative.
+	 */
+	public Pipeline limit(int maxSize) {
+		if(maxSize < 0) {
+			throw new IllegalArgumentException("maxSize can't be negative");
+		}
+		return new Pipeline(this, new LimitStage(maxSize));
+	}
+
+	/**
+	 * Calls Processor.process for each element which reaches the end of the pipeline.
+	 * @param processor Processor which is given each resulting element.
+	 * @throws NullPointerException if given processor is <code>null</code>.
+	 */
+	public void forEach(Processor processor) {
+		if(processor == null) {
+			throw new NullPointerException("Processor can not be null!");
+		}
+		run(new Sink() {
+			@Override
+			boolean accept(Object value) {
+				processor.process(value);
+				return true;
+			}
+		});
+	}
+
+	/**
+	 * Combines all resulting elements into one value, starting from <code>identity</code> and calling
+	 * <code>reducer.reduce(accumulated, element)</code> for each element, in order.
+	 * @param identity starting value.
+	 * @param reducer Reducer combining the accumulated value with each element.
+	 * @return combined value, or <code>identity</code> if no element reaches the end of the pipeline.
+	 * @throws NullPointerException if given reducer is <code>null</code>.
+	 */
+	public Object reduce(Object identity, Reducer reducer) {
+		if(reducer == null) {
+			throw new NullPointerException("Reducer can not be null!");
+		}
+		ReduceSink sink = new ReduceSink(identity, reducer);
+		run(sink);
+		return sink.result;
+	}
+
+	/**
+	 * Adds all resulting elements into the given collection, in order.
+	 * @param target collection into which elements are added.
+	 * @return given collection.
+	 * @throws NullPointerException if given collection is <code>null</code>.
+	 * @throws IllegalArgumentException if given collection is the source of this pipeline.
+	 */
+	public Collection collectInto(Collection target) {
+		if(target == null) {
+			throw new NullPointerException("Given collection can't be null");
+		}
+		if(target == source) {
+			throw new IllegalArgumentException("Can not collect into the source collection");
+		}
+		run(new Sink() {
+			@Override
+			boolean accept(Object value) {
+				target.add(value);
+				return true;
+			}
+		});
+		return target;
+	}
+
+	/**
+	 * Returns the number of elements which reach the end of the pipeline.
+	 * @return number of resulting elements.
+	 */
+	public int count() {
+		int[] count = new int[1];
+		run(new Sink() {
+			@Override
+			boolean accept(Object value) {
+				count[0]++;
+				return true;
+			}
+		});
+		return count[0];
+	}
+
+	/**
+	 * Chains stages of this pipeline in front of the given terminal sink, and pushes elements of the source
+	 * through the chain until the source is exhausted or a stage asks to stop. The chain is asked before each
+	 * element is pulled, so no element is taken from the source once a stage can accept nothing more.
+	 */
+	private void run(Sink terminal) {
+		Sink sink = terminal;
+		for(Pipeline current = this; current.stage != null; current = current.upstream) {
+			sink = current.stage.wrap(sink);
+		}
+
+		ElementsGetter getter = source.createElementsGetter();
+		while(!sink.done() && getter.hasNext()) {
+			if(!sink.accept(getter.next())) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Receiver of elements flowing through a pipeline.
+	 */
+	private static abstract class Sink {
+		/**
+		 * Accepts one element.
+		 * @return <code>false</code> if no more elements should be passed, <code>true</code> otherwise.
+		 */
+		abstract boolean accept(Object value);
+
+		/**
+		 * Checks whether this sink will accept no more elements, before any element is given to it.
+		 * In this specific class it returns <code>false</code>.
+		 * @return <code>true</code> if no more elements should be passed, <code>false</code> otherwise.
+		 */
+		boolean done() {
+			return false;
+		}
+	}
+
+	/**
+	 * Recorded intermediate stage. A fresh sink is created for each run, so stages with state, like limit, can be
+	 * run repeatedly.
+	 */
+	private static abstract class Stage {
+		/**
+		 * Creates a sink which applies this stage and passes results to <code>downstream</code>.
+		 */
+		abstract Sink wrap(Sink downstream);
+	}
+
+	private static class FilterStage extends Stage {
+		private final Tester tester;
+
+		FilterStage(Tester tester) {
+			this.tester = tester;
+		}
+
+		@Override
+		Sink wrap(Sink downstream) {
+			return new Sink() {
+				@Override
+				boolean accept(Object value) {
+					return !tester.test(value) || downstream.accept(value);
+				}
+
+				@Override
+				boolean done() {
+					return downstream.done();
+				}
+			};
+		}
+	}
+
+	private static class MapStage extends Stage {
+		private final Transformer transformer;
+
+		MapStage(Transformer transformer) {
+			this.transformer = transformer;
+		}
+
+		@Override
+		Sink wrap(Sink downstream) {
+			return new Sink() {
+				@Override
+				boolean accept(Object value) {
+					return downstream.accept(transformer.transform(value));
+				}
+
+				@Override
+				boolean done() {
+					return downstream.done();
+				}
+			};
+		}
+	}
+
+	private static class LimitStage extends Stage {
+		private final int maxSize;
+
+		LimitStage(int maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		Sink wrap(Sink downstream) {
+			return new Sink() {
+				private int passed;
+
+				@Override
+				boolean accept(Object value) {
+					if(passed >= maxSize) {
+						return false;
+					}
+					passed++;
+					return downstream.accept(value) && passed < maxSize;
+				}
+
+				@Override
+				boolean done() {
+					return passed >= maxSize || downstream.done();
+				}
+			};
+		}
+	}
+
+	private static class ReduceSink extends Sink {
+		private final Reducer reducer;
+		private Object result;
+
+		ReduceSink(Object identity, Reducer reducer) {
+			this.result = identity;
+			this.reducer = reducer;
+		}
+
+		@Override
+		boolean accept(Object value) {
+			result = reducer.reduce(result, value);
+			return true;
+		}
+	}
+
+}
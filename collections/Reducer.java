@@ -0,0 +1,25 @@
+package hr.fer.zemris.java.custom.collections;
+/**
+ * This is an abstract model of an object capable of combining two values into one, used to aggregate all elements
+ * of a collection into a single result.
+ * When used by a parallel reduction, <code>reduce</code> must be associative and free of side effects, because
+ * partial results of different parts of the collection are combined in an unspecified grouping.
+ * Contains only one method; <code>reduce</code>, which should be implemented and overridden by another class.
+ *
+ * @author Marko Benačić
+ *
+ */
+public class Reducer {
+
+	/**
+	 * Method that combines two values into one. Needs to be overridden and implemented.
+	 * In this specific class, method returns the first value.
+	 * @param accumulated result accumulated so far.
+	 * @param value value to be combined with the accumulated result.
+	 * @return combined result.
+	 */
+	public Object reduce(Object accumulated, Object value) {
+		return accumulated;
+	}
+
+}
@@ -0,0 +1,70 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Padding placed before the value of a {@link Sequence}.
+ */
+abstract class SequenceLeftPadding {
+	long p1, p2, p3, p4, p5, p6, p7;
+}
+
+/**
+ * Value of a {@link Sequence}. Kept in a separate class because the virtual machine lays out fields of a
+ * superclass before fields of its subclasses, which puts the value between the two paddings.
+ */
+abstract class SequenceValue extends SequenceLeftPadding {
+
+	static final AtomicLongFieldUpdater<SequenceValue> UPDATER =
+			AtomicLongFieldUpdater.newUpdater(SequenceValue.class, "value");
+
+	/**
+	 * Current value, written and read with volatile semantics unless stated otherwise.
+	 */
+	volatile long value;
+
+	/**
+	 * Plain field for the thread which owns the sequence, typically a cached copy of another sequence.
+	 */
+	long cached;
+}
+
+/**
+ * Counter of positions in a ring buffer, padded on both sides so that it occupies cache lines of its own.
+ * Counters written by different threads then never share a cache line, so one thread's writes do not
+ * invalidate the line another thread is using (false sharing).
+ *
+ * @author Marko Benačić
+ *
+ */
+final class Sequence extends SequenceValue {
+
+	long p9, p10, p11, p12, p13, p14, p15;
+
+	Sequence(long initialValue) {
+		UPDATER.lazySet(this, initialValue);
+	}
+
+	/**
+	 * Reads the value with volatile semantics.
+	 */
+	long get() {
+		return value;
+	}
+
+	/**
+	 * Writes the value so that all earlier writes of this thread are visible to a thread which reads the new
+	 * value, without the cost of a full volatile write. Used by the single writer of a sequence to publish.
+	 */
+	void lazySet(long newValue) {
+		UPDATER.lazySet(this, newValue);
+	}
+
+	/**
+	 * Atomically sets the value to <code>newValue</code> if it is <code>expected</code>.
+	 * @return <code>true</code> if the value was set.
+	 */
+	boolean compareAndSet(long expected, long newValue) {
+		return UPDATER.compareAndSet(this, expected, newValue);
+	}
+}
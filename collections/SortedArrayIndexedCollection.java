@@ -0,0 +1,511 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * Array-backed collection which keeps its elements sorted by a comparator. Because the order is known,
+ * <code>contains</code>, <code>indexOf</code> and range queries use binary search and take O(log n), while
+ * adding and removing single elements still shift the array and take O(n). Elements which compare as equal
+ * are kept in the order they were added. Permits duplicate elements but not <code>null</code> references.
+ * <p>
+ * Many elements are best added with <code>addAll</code>, which sorts them once and merges them with the existing
+ * ones in a single pass.
+ * <p>
+ * For lookup-heavy workloads the collection can additionally keep its elements in Eytzinger (breadth-first)
+ * layout, see {@link #setReadOptimized(boolean)}. In that layout the elements compared by the first steps of
+ * every search sit next to each other at the start of the array, so they stay in cache, and each further step
+ * reads a slot at a predictable position. The layout is an extra copy of the references, rebuilt in O(n) by the
+ * first lookup after a modification.
+ *
+ * @author Marko Benačić
+ *
+ */
+public class SortedArrayIndexedCollection extends Collection {
+
+	/**
+	 * default size of the underlying array.
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Comparator which orders elements by their natural ordering.
+	 */
+	private static final Comparator<Object> NATURAL_ORDER = new Comparator<Object>() {
+		@SuppressWarnings("unchecked")
+		@Override
+		public int compare(Object first, Object second) {
+			return ((Comparable<Object>) first).compareTo(second);
+		}
+	};
+
+	/**
+	 * Comparator defining the order of elements.
+	 */
+	private final Comparator<Object> comparator;
+
+	/**
+	 * Number of elements in the collection.
+	 */
+	private int size;
+
+	/**
+	 * Number of structural modifications (insertions, removals and clearing) of the collection.
+	 * Used by elements getters to detect that the collection was changed while they were used.
+	 */
+	private long modificationCount;
+
+	/**
+	 * Sorted elements of the collection.
+	 */
+	private Object[] elements;
+
+	/**
+	 * Whether lookups use the Eytzinger layout.
+	 */
+	private boolean readOptimized;
+
+	/**
+	 * Elements in Eytzinger layout: slot 1 is the root and slots 2k and 2k + 1 are the children of slot k.
+	 * Slot 0 is unused. <code>null</code> when the collection is not read optimized.
+	 */
+	private Object[] layout;
+
+	/**
+	 * Index in <code>elements</code> of the element in each slot of <code>layout</code>.
+	 */
+	private int[] layoutIndices;
+
+	/**
+	 * Whether <code>layout</code> matches current elements.
+	 */
+	private boolean layoutValid;
+
+	/**
+	 * Creates an empty collection which orders elements by their natural ordering. Elements must implement
+	 * {@link Comparable}.
+	 */
+	public SortedArrayIndexedCollection() {
+		this(NATURAL_ORDER);
+	}
+
+	/**
+	 * Creates an empty collection which orders elements by the given comparator.
+	 * @param comparator comparator defining the order of elements.
+	 * @throws NullPointerException if given comparator is <code>null</code>.
+	 */
+	public SortedArrayIndexedCollection(Comparator<Object> comparator) {
+		if(comparator == null) {
+			throw new NullPointerException("Comparator can not be null!");
+		}
+		this.comparator = comparator;
+		this.elements = new Object[DEFAULT_CAPACITY];
+	}
+
+	/**
+	 * Creates a collection holding elements of the given collection, ordered by the given comparator.
+	 * Elements are bulk loaded, so creating the collection takes O(m log m) for m given elements.
+	 * @param other collection whose elements are copied.
+	 * @param comparator comparator defining the order of elements.
+	 * @throws NullPointerException if given collection or comparator is <code>null</code>.
+	 */
+	public SortedArrayIndexedCollection(Collection other, Comparator<Object> comparator) {
+		this(comparator);
+		addAll(other);
+	}
+
+	/**
+	 * Adds given value at its place in the order, after all elements equal to it. Complexity O(n).
+	 * @param value object to be added to the collection.
+	 * @throws NullPointerException if given value is <code>null</code>.
+	 */
+	@Override
+	public void add(Object value) {
+		if(value == null) {
+			throw new NullPointerException("Value can not be null!");
+		}
+
+		int position = upperBound(value);
+		if(size == elements.length) {
+			elements = Arrays.copyOf(elements, size * 2);
+		}
+		System.arraycopy(elements, position, elements, position + 1, size - position);
+		elements[position] = value;
+
+		size++;
+		modificationCount++;
+		layoutValid = false;
+	}
+
+	/**
+	 * Adds all elements of the given collection. The given elements are sorted once and merged with the elements
+	 * of this collection in a single pass, so adding m elements takes O(m log m + n) instead of O(m n).
+	 * @param other collection whose elements are added.
+	 * @throws NullPointerException if given collection is <code>null</code> or contains <code>null</code>.
+	 */
+	@Override
+	public void addAll(Collection other) {
+		if(other == null) {
+			throw new NullPointerException("Given collection can't be null");
+		}
+
+		Object[] added = other.toArray();
+		if(added.length == 0) {
+			return;
+		}
+		for(int i = 0; i < added.length; i++) {
+			if(added[i] == null) {
+				throw new NullPointerException("Value can not be null!");
+			}
+		}
+		Arrays.sort(added, comparator);
+
+		Object[] merged = new Object[Math.max(elements.length, size + added.length)];
+		int i = 0;
+		int j = 0;
+		int k = 0;
+		while(i < size && j < added.length) {
+			// on ties existing elements go first, as if the new ones were added one by one
+			if(comparator.compare(elements[i], added[j]) <= 0) {
+				merged[k++] = elements[i++];
+			}else {
+				merged[k++] = added[j++];
+			}
+		}
+		System.arraycopy(elements, i, merged, k, size - i);
+		k += size - i;
+		System.arraycopy(added, j, merged, k, added.length - j);
+
+		elements = merged;
+		size += added.length;
+		modificationCount++;
+		layoutValid = false;
+	}
+
+	/**
+	 * Returns object at the index position in the order. Complexity O(1).
+	 * @param index position of the object.
+	 * @return object at indexed position
+	 * @throws IndexOutOfBoundsException if index is not within [0,size-1].
+	 */
+	public Object get(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index must be within [0, size - 1]");
+		}
+		return elements[index];
+	}
+
+	/**
+	 * Removes element from specified index from collection. Complexity O(n).
+	 * @param index position from which the element must be removed.
+	 * @throws IndexOutOfBoundsException if index is not within [0, size-1]
+	 */
+	public void remove(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index must be within [0,size-1]");
+		}
+
+		System.arraycopy(elements, index + 1, elements, index, size - 1 - index);
+		elements[size - 1] = null;
+		size--;
+		modificationCount++;
+		layoutValid = false;
+	}
+
+	/**
+	 * Removes one element equal to the given value, as decided by the comparator. Complexity O(n).
+	 * @param value object to remove from collection.
+	 * @return <code>true</code> if an element was found and removed, <code>false</code> otherwise.
+	 */
+	@Override
+	public boolean remove(Object value) {
+		int index = indexOf(value);
+		if(index == -1) {
+			return false;
+		}
+		remove(index);
+		return true;
+	}
+
+	/**
+	 * Returns index of the first element equal to the given value, as decided by the comparator.
+	 * Complexity O(log n).
+	 * @param value element that we are searching for in collection.
+	 * @return index of the element, or -1 if there is no such element or value is <code>null</code>.
+	 */
+	public int indexOf(Object value) {
+		if(value == null) {
+			return -1;
+		}
+		int index = readOptimized ? layoutLowerBound(value) : lowerBound(value);
+		if(index < size && comparator.compare(elements[index], value) == 0) {
+			return index;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns <code>true</code> if collection contains an element equal to the given value, as decided by the
+	 * comparator. Complexity O(log n).
+	 * @param value object which we check whether it is in the collection.
+	 */
+	@Override
+	public boolean contains(Object value) {
+		return indexOf(value) != -1;
+	}
+
+	/**
+	 * Returns a new collection, with the same comparator, holding all elements within range
+	 * [fromInclusive, toExclusive). Complexity O(log n + k), where k is the number of returned elements.
+	 * @param fromInclusive lowest element of the range.
+	 * @param toExclusive element above the range.
+	 * @return new collection holding elements of the range.
+	 * @throws NullPointerException if either bound is <code>null</code>.
+	 * @throws IllegalArgumentException if fromInclusive is greater than toExclusive.
+	 */
+	public SortedArrayIndexedCollection range(Object fromInclusive, Object toExclusive) {
+		if(fromInclusive == null || toExclusive == null) {
+			throw new NullPointerException("Range bounds can not be null!");
+		}
+		if(comparator.compare(fromInclusive, toExclusive) > 0) {
+			throw new IllegalArgumentException("fromInclusive can't be greater than toExclusive");
+		}
+
+		int from = lowerBound(fromInclusive);
+		int to = lowerBound(toExclusive);
+		SortedArrayIndexedCollection result = new SortedArrayIndexedCollection(comparator);
+		if(to > from) {
+			result.elements = Arrays.copyOfRange(elements, from, to);
+			result.size = to - from;
+		}
+		return result;
+	}
+
+	/**
+	 * Enables or disables the Eytzinger layout for lookups. While enabled, the collection holds a second array
+	 * of references, and the first lookup after each modification rebuilds it in O(n), so it pays off only when
+	 * many lookups are made between modifications.
+	 * Lookups then modify the collection's internal state, so even read-only concurrent use is not safe.
+	 * @param readOptimized <code>true</code> to use the Eytzinger layout.
+	 */
+	public void setReadOptimized(boolean readOptimized) {
+		this.readOptimized = readOptimized;
+		if(!readOptimized) {
+			layout = null;
+			layoutIndices = null;
+		}
+		layoutValid = false;
+	}
+
+	/**
+	 * Returns the comparator defining the order of elements.
+	 * @return comparator of the collection.
+	 */
+	public Comparator<Object> comparator() {
+		return comparator;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all elements from the collection. Capacity remains the same.
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(elements, 0, size, null);
+		size = 0;
+		modificationCount++;
+		layout = null;
+		layoutIndices = null;
+		layoutValid = false;
+	}
+
+	/**
+	 * Removes all elements which satisfy the given tester in a single pass, moving each kept element at most once.
+	 * Kept elements stay in order, so no comparisons are needed. If the tester throws, elements tested so far are
+	 * removed and the rest are kept. Complexity O(n).
+	 * @param tester Tester deciding which elements are removed.
+	 * @return <code>true</code> if any element was removed, <code>false</code> otherwise.
+	 * @throws NullPointerException if given tester is <code>null</code>.
+	 */
+	@Override
+	public boolean removeIf(Tester tester) {
+		if(tester == null) {
+			throw new NullPointerException("Tester can not be null!");
+		}
+
+		int read = 0;
+		int write = 0;
+		try {
+			for(; read < size; read++) {
+				Object value = elements[read];
+				if(!tester.test(value)) {
+					elements[write++] = value;
+				}
+			}
+		}finally {
+			// if the tester threw, keep the untested tail
+			if(read < size) {
+				System.arraycopy(elements, read, elements, write, size - read);
+				write += size - read;
+			}
+			if(write < size) {
+				Arrays.fill(elements, write, size, null);
+				size = write;
+				modificationCount++;
+				layoutValid = false;
+			}
+		}
+		return read != write;
+	}
+
+	/**
+	 * Allocates a new array filled with elements of the collection, in order, and returns it.
+	 */
+	@Override
+	public Object[] toArray() {
+		return Arrays.copyOf(elements, size);
+	}
+
+	@Override
+	public void forEach(Processor processor) {
+		for(int i = 0; i < size; i++) {
+			processor.process(elements[i]);
+		}
+	}
+
+	/**
+	 * Returns index of the first element not less than the given value, or size if there is none.
+	 */
+	private int lowerBound(Object value) {
+		int low = 0;
+		int high = size;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(comparator.compare(elements[middle], value) < 0) {
+				low = middle + 1;
+			}else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns index of the first element greater than the given value, or size if there is none.
+	 */
+	private int upperBound(Object value) {
+		int low = 0;
+		int high = size;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(comparator.compare(elements[middle], value) <= 0) {
+				low = middle + 1;
+			}else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Same as <code>lowerBound</code>, but searches the Eytzinger layout, rebuilding it first if needed.
+	 */
+	private int layoutLowerBound(Object value) {
+		if(!layoutValid) {
+			buildLayout();
+		}
+
+		int k = 1;
+		while(k <= size) {
+			k = 2 * k + (comparator.compare(layout[k], value) < 0 ? 1 : 0);
+		}
+		// k encodes the path taken; stripping the trailing right turns and the last left turn gives the answer
+		k >>= Integer.numberOfTrailingZeros(~k) + 1;
+		return k == 0 ? size : layoutIndices[k];
+	}
+
+	/**
+	 * Fills the Eytzinger layout from the sorted elements.
+	 */
+	private void buildLayout() {
+		if(layout == null || layout.length != size + 1) {
+			layout = new Object[size + 1];
+			layoutIndices = new int[size + 1];
+		}
+		fillLayout(0, 1);
+		layoutValid = true;
+	}
+
+	/**
+	 * Fills the subtree rooted at slot k with sorted elements starting from index i, by an in-order walk.
+	 * @return index of the first element not placed in the subtree.
+	 */
+	private int fillLayout(int i, int k) {
+		if(k <= size) {
+			i = fillLayout(i, 2 * k);
+			layout[k] = elements[i];
+			layoutIndices[k] = i;
+			i++;
+			i = fillLayout(i, 2 * k + 1);
+		}
+		return i;
+	}
+
+	/**
+	 * Creates a new elements getter which returns elements in order. Each step of the getter is O(1).
+	 */
+	@Override
+	public ElementsGetter createElementsGetter() {
+		return new SortedElementsGetter();
+	}
+
+	/**
+	 * Elements getter which walks the sorted array by index.
+	 */
+	private class SortedElementsGetter extends ElementsGetter {
+
+		/**
+		 * index of the next element to be returned.
+		 */
+		private int current;
+
+		/**
+		 * modification count of the collection at the time the getter was created or last reset.
+		 */
+		private long expectedModificationCount = modificationCount;
+
+		@Override
+		public boolean hasNext() {
+			if(expectedModificationCount != modificationCount) {
+				throw new ConcurrentModificationException("Collection was modified.");
+			}
+			return current < size;
+		}
+
+		@Override
+		public Object next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException("No more elements.");
+			}
+			return elements[current++];
+		}
+
+		@Override
+		public void reset() {
+			current = 0;
+			expectedModificationCount = modificationCount;
+		}
+	}
+
+}
@@ -0,0 +1,214 @@
+package hr.fer.zemris.java.custom.collections;
+
+/**
+ * Bounded FIFO queue of Objects for exactly one producer thread and one consumer thread, backed by a ring
+ * buffer whose capacity is a power of two.
+ * <p>
+ * The producer owns the tail position and the consumer owns the head position, so neither ever needs a
+ * compare-and-set or a lock. Each side publishes its position with an ordered write and keeps a cached copy of
+ * the other side's position, which it re-reads only when the cache says the queue is full (or empty). Both
+ * positions are padded so they sit in different cache lines. Batch methods publish a position once for the
+ * whole batch.
+ * <p>
+ * Only one thread may call <code>offer</code> and <code>offerAll</code>, and only one thread may call
+ * <code>poll</code> and <code>drain</code>; <code>size</code>, <code>isEmpty</code> and <code>capacity</code>
+ * may be called by any thread. For many producers or consumers use {@link MpmcRingBufferQueue}.
+ *
+ * @author Marko Benačić
+ *
+ */
+public class SpscRingBufferQueue {
+
+	/**
+	 * default capacity. Will be used if capacity is not given.
+	 */
+	private static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * Slots of the ring buffer. Element at position p is in slot p &amp; mask.
+	 */
+	private final Object[] slots;
+
+	private final int mask;
+
+	/**
+	 * Position of the next element to be taken. Written by the consumer, which caches the tail next to it.
+	 */
+	private final Sequence head = new Sequence(0);
+
+	/**
+	 * Position of the next element to be added. Written by the producer, which caches the head next to it.
+	 */
+	private final Sequence tail = new Sequence(0);
+
+	/**
+	 * Default constructor. Creates an empty queue with default capacity (which is 1024).
+	 */
+	public SpscRingBufferQueue() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty queue with at least given capacity, rounded up to a power of two.
+	 * @param capacity specified capacity of the queue.
+	 * @throws IllegalArgumentException if capacity is less than 1 or greater than 2^30.
+	 */
+	public SpscRingBufferQueue(int capacity) {
+		if(capacity < 1 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("capacity must be within [1, 2^30]");
+		}
+		int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+		this.slots = new Object[size];
+		this.mask = size - 1;
+	}
+
+	/**
+	 * Adds value at the tail of the queue, if there is room. May be called only by the producer thread.
+	 * @param value value to be added.
+	 * @return <code>true</code> if value was added, <code>false</code> if the queue is full.
+	 * @throws IllegalArgumentException if given value is <code>null</code>.
+	 */
+	public boolean offer(Object value) {
+		if(value == null) {
+			throw new IllegalArgumentException("Can not add null to queue");
+		}
+		long position = tail.get();
+		if(position - tail.cached >= slots.length) {
+			tail.cached = head.get();
+			if(position - tail.cached >= slots.length) {
+				return false;
+			}
+		}
+		slots[(int) position & mask] = value;
+		tail.lazySet(position + 1);
+		return true;
+	}
+
+	/**
+	 * Adds elements of the given collection at the tail of the queue, in order, as long as there is room.
+	 * The new tail is published once, after all elements are stored. May be called only by the producer thread.
+	 * @param values collection whose elements are added.
+	 * @return number of elements added, less than the size of the collection if the queue became full.
+	 * @throws IllegalArgumentException if given collection is <code>null</code> or contains <code>null</code>.
+	 */
+	public int offerAll(Collection values) {
+		if(values == null) {
+			throw new IllegalArgumentException("Given collection can't be null");
+		}
+		Object[] elements = values.toArray();
+		for(int i = 0; i < elements.length; i++) {
+			if(elements[i] == null) {
+				throw new IllegalArgumentException("Can not add null to queue");
+			}
+		}
+
+		long position = tail.get();
+		long free = slots.length - (position - tail.cached);
+		if(free < elements.length) {
+			tail.cached = head.get();
+			free = slots.length - (position - tail.cached);
+		}
+		int count = (int) Math.min(free, elements.length);
+		for(int i = 0; i < count; i++) {
+			slots[(int) (position + i) & mask] = elements[i];
+		}
+		if(count > 0) {
+			tail.lazySet(position + count);
+		}
+		return count;
+	}
+
+	/**
+	 * Removes and returns the element at the head of the queue. May be called only by the consumer thread.
+	 * @return removed element, or <code>null</code> if the queue is empty.
+	 */
+	public Object poll() {
+		long position = head.get();
+		if(position >= head.cached) {
+			head.cached = tail.get();
+			if(position >= head.cached) {
+				return null;
+			}
+		}
+		int index = (int) position & mask;
+		Object value = slots[index];
+		slots[index] = null;
+		head.lazySet(position + 1);
+		return value;
+	}
+
+	/**
+	 * Removes all elements currently in the queue and gives them to the processor, in order.
+	 * May be called only by the consumer thread.
+	 * @param processor Processor which is given each removed element.
+	 * @return number of removed elements.
+	 */
+	public int drain(Processor processor) {
+		return drain(processor, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Removes at most <code>maxElements</code> elements from the head of the queue and gives them to the
+	 * processor, in order. The new head is published once, after the last element. If the processor throws,
+	 * the element it failed on and those before it are removed and the rest stay in the queue.
+	 * May be called only by the consumer thread.
+	 * @param processor Processor which is given each removed element.
+	 * @param maxElements largest number of elements to remove.
+	 * @return number of removed elements.
+	 * @throws IllegalArgumentException if processor is <code>null</code> or maxElements is negative.
+	 */
+	public int drain(Processor processor, int maxElements) {
+		if(processor == null) {
+			throw new IllegalArgumentException("Processor can not be null");
+		}
+		if(maxElements < 0) {
+			throw new IllegalArgumentException("maxElements can't be negative");
+		}
+
+		long position = head.get();
+		head.cached = tail.get();
+		int count = (int) Math.min(head.cached - position, maxElements);
+		int processed = 0;
+		try {
+			while(processed < count) {
+				int index = (int) (position + processed) & mask;
+				Object value = slots[index];
+				slots[index] = null;
+				processed++;
+				processor.process(value);
+			}
+		}finally {
+			if(processed > 0) {
+				head.lazySet(position + processed);
+			}
+		}
+		return processed;
+	}
+
+	/**
+	 * Returns the number of elements in the queue. The answer may be stale if other threads are using the queue.
+	 * @return number of elements in the queue.
+	 */
+	public int size() {
+		// read head first, so that a concurrent poll can not make the difference negative
+		long position = head.get();
+		return (int) Math.max(0, Math.min(tail.get() - position, slots.length));
+	}
+
+	/**
+	 * Checks whether the queue has no elements. The answer may be stale if other threads are using the queue.
+	 * @return <code>true</code> if queue has no elements, <code>false</code> otherwise
+	 */
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Returns the largest number of elements the queue can hold.
+	 * @return capacity of the queue.
+	 */
+	public int capacity() {
+		return slots.length;
+	}
+
+}
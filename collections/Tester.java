@@ -0,0 +1,22 @@
+package hr.fer.zemris.java.custom.collections;
+/**
+ * This is an abstract model of an object capable of testing whether the passed object satisfies some condition.
+ * Used by collections to select elements, for example in <code>removeIf</code>.
+ * Contains only one method; <code>test</code>, which should be implemented and overridden by another class.
+ *
+ * @author Marko Benačić
+ *
+ */
+public class Tester {
+
+	/**
+	 * Method that checks whether the passed object satisfies the condition. Needs to be overridden and implemented.
+	 * In this specific class, method returns <code>false</code>.
+	 * @param value Object value to be tested.
+	 * @return <code>true</code> if the value satisfies the condition, <code>false</code> otherwise.
+	 */
+	public boolean test(Object value) {
+		return false;
+	}
+
+}
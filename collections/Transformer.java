@@ -0,0 +1,22 @@
+package hr.fer.zemris.java.custom.collections;
+/**
+ * This is an abstract model of an object capable of turning the passed object into another one.
+ * Used by {@link Pipeline#map(Transformer)}.
+ * Contains only one method; <code>transform</code>, which should be implemented and overridden by another class.
+ *
+ * @author Marko Benačić
+ *
+ */
+public class Transformer {
+
+	/**
+	 * Method that computes a new value from the passed one. Needs to be overridden and implemented.
+	 * In this specific class, method returns the passed value unchanged.
+	 * @param value Object value to be transformed.
+	 * @return transformed value.
+	 */
+	public Object transform(Object value) {
+		return value;
+	}
+
+}
@@ -0,0 +1,528 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * Unrolled linked list implementation of Collection class. Every node holds a small array of elements instead of
+ * a single one, so a list needs far fewer node objects than {@link LinkedListIndexedCollection}, neighbouring
+ * elements share cache lines and lookup by index skips a whole node at a time.
+ * Emptied nodes are kept in a small pool and reused, so add/remove heavy workloads allocate almost nothing.
+ * Accepts duplicate elements, but not null elements.
+ * @author Marko Benačić
+ *
+ */
+public class UnrolledLinkedListIndexedCollection extends Collection{
+
+	/**
+	 * Number of elements one node can hold if capacity is not given.
+	 */
+	private static final int DEFAULT_NODE_CAPACITY = 32;
+
+	/**
+	 * Maximum number of emptied nodes kept for reuse.
+	 */
+	private static final int MAX_POOLED_NODES = 16;
+
+	/**
+	 * number of elements in our list.
+	 */
+	private int size;
+
+	/**
+	 * Number of structural modifications (insertions, removals and clearing) of the collection.
+	 * Used by elements getters to detect that the collection was changed while they were used.
+	 */
+	private long modificationCount;
+
+	/**
+	 * first node in the list.
+	 */
+	private ListNode first;
+
+	/**
+	 * last node in the list.
+	 */
+	private ListNode last;
+
+	/**
+	 * Number of elements one node can hold.
+	 */
+	private final int nodeCapacity;
+
+	/**
+	 * Emptied nodes waiting to be reused, linked through their <code>next</code> reference.
+	 */
+	private ListNode pool;
+
+	/**
+	 * Number of nodes in the pool.
+	 */
+	private int pooledNodes;
+
+	/**
+	 * Node found by the last call to <code>locate</code>.
+	 */
+	private ListNode locatedNode;
+
+	/**
+	 * Offset within <code>locatedNode</code> of the element found by the last call to <code>locate</code>.
+	 */
+	private int locatedOffset;
+
+	/**
+	 * private static class representing a node in our linked list implementation
+	 */
+	private static class ListNode{
+		ListNode previous;
+		ListNode next;
+		Object[] values;
+		int count;
+	}
+
+	/**
+	 * Default constructor, creates empty collection with default node capacity (which is 32).
+	 */
+	public UnrolledLinkedListIndexedCollection() {
+		this(DEFAULT_NODE_CAPACITY);
+	}
+
+	/**
+	 * Creates empty collection whose nodes hold given number of elements.
+	 * @param nodeCapacity number of elements in one node.
+	 * @throws IllegalArgumentException if node capacity is less than 2.
+	 */
+	public UnrolledLinkedListIndexedCollection(int nodeCapacity) {
+		if(nodeCapacity < 2) {
+			throw new IllegalArgumentException("nodeCapacity can't be less than 2");
+		}
+		this.nodeCapacity = nodeCapacity;
+		this.size = 0;
+	}
+
+	/**
+	 * Creates a new collection and copies elements of the other collection into the new one.
+	 * @param other collection which elements will be copied into new collection.
+	 */
+	public UnrolledLinkedListIndexedCollection(Collection other) {
+		this(DEFAULT_NODE_CAPACITY);
+		this.addAll(other);
+	}
+
+	/**
+	 * Adds the given object at the end of collection. Complexity O(1).
+	 * @throws NullPointerException if given value is <code>null</code>.
+	 */
+	@Override
+	public void add(Object value) {
+		if(value == null) {
+			throw new NullPointerException("given value can not be null");
+		}
+
+		insert(value, size);
+	}
+
+	/**
+	 * retrieves object from collection at the given index. Complexity O(n / nodeCapacity).
+	 * @param index index from which the element will be retrieved;
+	 * @return Object at given index in the collection.
+	 * @throws IndexOutOfBoundsException if given index is not within range [0, size - 1].
+	 */
+	public Object get(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("given index must be within range [0,size-1]");
+		}
+
+		locate(index);
+		return locatedNode.values[locatedOffset];
+	}
+
+	/**
+	 * Removes all elements from the collection.
+	 */
+	@Override
+	public void clear() {
+		first = last = null;
+		locatedNode = null;
+		size = 0;
+		modificationCount++;
+	}
+
+	/**
+	 * Insert value at given position in the collection. Complexity O(n / nodeCapacity + nodeCapacity).
+	 * @param value element to be inserted
+	 * @param position position in collection at which the element is inserted.
+	 * @throws NullPointerException if given value is <code>null</code>.
+	 * @throws IndexOutOfBoundsException if position is not within range [0, size].
+	 */
+	public void insert(Object value, int position) {
+		if(value == null) {
+			throw new NullPointerException("Can not insert value as null");
+		}
+		if(position < 0 || position > size) {
+			throw new IndexOutOfBoundsException("Position must be within range [0,size]");
+		}
+
+		ListNode node;
+		int offset;
+		if(position == size) {
+			node = last;
+			offset = node == null ? 0 : node.count;
+			if(node == null || node.count == nodeCapacity) {
+				node = linkAfter(last);
+				offset = 0;
+			}
+		}else {
+			locate(position);
+			node = locatedNode;
+			offset = locatedOffset;
+			if(node.count == nodeCapacity) {
+				ListNode upper = linkAfter(node);
+				int half = nodeCapacity / 2;
+				System.arraycopy(node.values, half, upper.values, 0, nodeCapacity - half);
+				Arrays.fill(node.values, half, nodeCapacity, null);
+				upper.count = nodeCapacity - half;
+				node.count = half;
+				if(offset > half) {
+					node = upper;
+					offset -= half;
+				}
+			}
+		}
+
+		System.arraycopy(node.values, offset, node.values, offset + 1, node.count - offset);
+		node.values[offset] = value;
+		node.count++;
+		size++;
+		modificationCount++;
+	}
+
+	/**
+	 * returns index within the collection of given value. Search is based on equals method. Complexity O(n).
+	 * @param value element that we are searching for in collection.
+	 * @return index of given element as int. If element is not found returns -1.
+	 * @throws IllegalArgumentException if given value is <code>null</code>.
+	 */
+	public int indexOf(Object value) {
+		if(value == null) {
+			throw new IllegalArgumentException("given value can not be null!");
+		}
+
+		int start = 0;
+		for(ListNode node = first; node != null; node = node.next) {
+			for(int i = 0; i < node.count; i++) {
+				if(node.values[i].equals(value)) {
+					return start + i;
+				}
+			}
+			start += node.count;
+		}
+		return -1;
+	}
+
+	/**
+	 * removes element from collection at the given index. Complexity O(n / nodeCapacity + nodeCapacity).
+	 * @param index position from which the element is removed.
+	 * @throws IndexOutOfBoundsException if given index is not within range [0, size - 1].
+	 */
+	public void remove(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index must be within range [0, size - 1]");
+		}
+
+		locate(index);
+		ListNode node = locatedNode;
+		int offset = locatedOffset;
+		System.arraycopy(node.values, offset + 1, node.values, offset, node.count - offset - 1);
+		node.values[--node.count] = null;
+		size--;
+		modificationCount++;
+
+		if(node.count == 0) {
+			unlink(node);
+		}else if(node.next != null && node.count + node.next.count <= nodeCapacity / 2) {
+			ListNode next = node.next;
+			System.arraycopy(next.values, 0, node.values, node.count, next.count);
+			node.count += next.count;
+			Arrays.fill(next.values, 0, next.count, null);
+			next.count = 0;
+			unlink(next);
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the number of elements in the collection.
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks whether the collections contains the given element.
+	 * @param value Object value to search for in the collection.
+	 * @return <code>true</code> if given element is found, <code>false</code> otherwise.
+	 */
+	@Override
+	public boolean contains(Object value) {
+		return value != null && indexOf(value) != -1;
+	}
+
+	/**
+	 * Checks if the collection has a given element determined by equals method.
+	 * If it does, removes only one recurrence of it.
+	 */
+	@Override
+	public boolean remove(Object value) {
+		if(value == null) {
+			return false;
+		}
+		int index = indexOf(value);
+		if(index == -1) {
+			return false;
+		}
+		remove(index);
+		return true;
+	}
+
+	/**
+	 * Removes all elements which satisfy the given tester in a single walk through the list, compacting each node
+	 * in place. Emptied nodes are unlinked into the pool, and a node left with few elements is merged into the
+	 * previous one. If the tester throws, elements tested so far are removed and the rest are kept.
+	 * Complexity O(n).
+	 * @param tester Tester deciding which elements are removed.
+	 * @return <code>true</code> if any element was removed, <code>false</code> otherwise.
+	 * @throws NullPointerException if given tester is <code>null</code>.
+	 */
+	@Override
+	public boolean removeIf(Tester tester) {
+		if(tester == null) {
+			throw new NullPointerException("Tester can not be null!");
+		}
+
+		ListNode node = first;
+		int read = 0;
+		int write = 0;
+		int removed = 0;
+		try {
+			while(node != null) {
+				for(read = 0, write = 0; read < node.count; read++) {
+					Object value = node.values[read];
+					if(tester.test(value)) {
+						removed++;
+					}else {
+						node.values[write++] = value;
+					}
+				}
+				node = compacted(node, read, write);
+			}
+		}finally {
+			if(node != null) {
+				// tester threw, keep the untested rest of the node
+				compacted(node, read, write);
+			}
+			if(removed > 0) {
+				size -= removed;
+				modificationCount++;
+				locatedNode = null;
+			}
+		}
+		return removed > 0;
+	}
+
+	/**
+	 * Allocates a new array filled with this collections content, and returns it.
+	 */
+	@Override
+	public Object[] toArray() {
+		Object[] result = new Object[size];
+		int start = 0;
+		for(ListNode node = first; node != null; node = node.next) {
+			System.arraycopy(node.values, 0, result, start, node.count);
+			start += node.count;
+		}
+		return result;
+	}
+
+	@Override
+	public void forEach(Processor processor) {
+		for(ListNode node = first; node != null; node = node.next) {
+			for(int i = 0; i < node.count; i++) {
+				processor.process(node.values[i]);
+			}
+		}
+	}
+
+	/**
+	 * Finds the node and offset of the element with given index, walking from the closer end of the list.
+	 * Result is stored in <code>locatedNode</code> and <code>locatedOffset</code>, so no object is allocated.
+	 */
+	private void locate(int index) {
+		if(index < size - index) {
+			ListNode node = first;
+			while(index >= node.count) {
+				index -= node.count;
+				node = node.next;
+			}
+			locatedNode = node;
+			locatedOffset = index;
+		}else {
+			ListNode node = last;
+			int start = size - node.count;
+			while(index < start) {
+				node = node.previous;
+				start -= node.count;
+			}
+			locatedNode = node;
+			locatedOffset = index - start;
+		}
+	}
+
+	/**
+	 * Finishes compaction of a node whose elements before <code>read</code> were compacted to the first
+	 * <code>write</code> places: moves the rest of the elements after them, then unlinks the node if it is empty or
+	 * merges it into the previous node if both together are at most half full.
+	 * @return node which followed the given one.
+	 */
+	private ListNode compacted(ListNode node, int read, int write) {
+		ListNode next = node.next;
+		if(read == write) {
+			return next;
+		}
+
+		int count = write + node.count - read;
+		System.arraycopy(node.values, read, node.values, write, node.count - read);
+		Arrays.fill(node.values, count, node.count, null);
+		node.count = count;
+
+		ListNode previous = node.previous;
+		if(previous != null && node.count > 0 && previous.count + node.count <= nodeCapacity / 2) {
+			System.arraycopy(node.values, 0, previous.values, previous.count, node.count);
+			previous.count += node.count;
+			Arrays.fill(node.values, 0, node.count, null);
+			node.count = 0;
+		}
+		if(node.count == 0) {
+			unlink(node);
+		}
+		return next;
+	}
+
+	/**
+	 * Links an empty node after the given one, or as the only node if given node is <code>null</code>.
+	 * Node is taken from the pool if possible.
+	 */
+	private ListNode linkAfter(ListNode node) {
+		ListNode newNode;
+		if(pool != null) {
+			newNode = pool;
+			pool = pool.next;
+			pooledNodes--;
+		}else {
+			newNode = new ListNode();
+			newNode.values = new Object[nodeCapacity];
+		}
+
+		newNode.previous = node;
+		if(node == null) {
+			newNode.next = null;
+			first = last = newNode;
+		}else {
+			newNode.next = node.next;
+			if(node.next == null) {
+				last = newNode;
+			}else {
+				node.next.previous = newNode;
+			}
+			node.next = newNode;
+		}
+		return newNode;
+	}
+
+	/**
+	 * Unlinks an empty node from the list and puts it into the pool if the pool is not full.
+	 */
+	private void unlink(ListNode node) {
+		if(node.previous == null) {
+			first = node.next;
+		}else {
+			node.previous.next = node.next;
+		}
+		if(node.next == null) {
+			last = node.previous;
+		}else {
+			node.next.previous = node.previous;
+		}
+
+		if(pooledNodes < MAX_POOLED_NODES) {
+			node.previous = null;
+			node.next = pool;
+			pool = node;
+			pooledNodes++;
+		}
+	}
+	
+	/**
+	 * Creates a new elements getter over this collection. Each step of the getter is O(1).
+	 */
+	@Override
+	public ElementsGetter createElementsGetter() {
+		return new UnrolledElementsGetter();
+	}
+	
+	/**
+	 * Elements getter which walks the nodes one after another.
+	 */
+	private class UnrolledElementsGetter extends ElementsGetter{
+		
+		/**
+		 * node of the next element to be returned, <code>null</code> if there are no more elements.
+		 */
+		private ListNode node = first;
+		
+		/**
+		 * offset within the node of the next element to be returned.
+		 */
+		private int offset;
+		
+		/**
+		 * modification count of the collection at the time the getter was created or last reset.
+		 */
+		private long expectedModificationCount = modificationCount;
+		
+		@Override
+		public boolean hasNext() {
+			if(expectedModificationCount != modificationCount) {
+				throw new ConcurrentModificationException("Collection was modified.");
+			}
+			return node != null;
+		}
+		
+		@Override
+		public Object next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException("No more elements.");
+			}
+			Object value = node.values[offset++];
+			if(offset == node.count) {
+				node = node.next;
+				offset = 0;
+			}
+			return value;
+		}
+		
+		@Override
+		public void reset() {
+			node = first;
+			offset = 0;
+			expectedModificationCount = modificationCount;
+		}
+	}
+
+}
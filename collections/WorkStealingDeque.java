@@ -0,0 +1,202 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Chase-Lev work-stealing deque of Objects, meant to be used as a per-worker task stack in a scheduler.
+ * One thread owns the deque and uses it like an {@link ObjectStack}: <code>push</code> and <code>pop</code> work
+ * on the bottom end, in LIFO order, and need no compare-and-set except when taking the very last element.
+ * Any other thread can <code>steal</code> from the top end, in FIFO order, so idle workers take the oldest
+ * (usually largest) tasks of busy ones. Elements are kept in a circular array which grows when it is full.
+ * <p>
+ * Only the owner thread may call <code>push</code>, <code>pop</code>, <code>tryPop</code> and <code>clear</code>;
+ * <code>steal</code>, <code>isEmpty</code> and <code>size</code> may be called by any thread.
+ * @author Marko Benačić
+ *
+ */
+public class WorkStealingDeque {
+
+	/**
+	 * default size of the circular array. Will be used if initial capacity is not given.
+	 */
+	private static final int DEFAULT_CAPACITY = 64;
+
+	/**
+	 * Index one past the bottom element, changed only by the owner.
+	 */
+	private volatile long bottom;
+
+	/**
+	 * Index of the top element, advanced by whoever takes it.
+	 */
+	private final AtomicLong top;
+
+	/**
+	 * Circular array holding the elements.
+	 */
+	private volatile CircularArray array;
+
+	/**
+	 * private static class representing an array indexed by ever growing positions modulo its length.
+	 */
+	private static class CircularArray{
+		final AtomicReferenceArray<Object> slots;
+		final int mask;
+
+		CircularArray(int capacity) {
+			this.slots = new AtomicReferenceArray<>(capacity);
+			this.mask = capacity - 1;
+		}
+
+		int capacity() {
+			return mask + 1;
+		}
+
+		Object get(long index) {
+			return slots.get((int) index & mask);
+		}
+
+		void put(long index, Object value) {
+			slots.set((int) index & mask, value);
+		}
+
+		/**
+		 * Returns a twice larger array holding elements from [top, bottom).
+		 */
+		CircularArray grow(long bottom, long top) {
+			CircularArray bigger = new CircularArray(capacity() * 2);
+			for(long i = top; i < bottom; i++) {
+				bigger.put(i, get(i));
+			}
+			return bigger;
+		}
+	}
+
+	/**
+	 * Default constructor. Creates an empty deque with default capacity (which is 64).
+	 */
+	public WorkStealingDeque() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty deque with at least given initial capacity, rounded up to a power of two.
+	 * @param initialCapacity specified capacity of the deque.
+	 * @throws IllegalArgumentException if capacity is less than 1.
+	 */
+	public WorkStealingDeque(int initialCapacity) {
+		if(initialCapacity < 1) {
+			throw new IllegalArgumentException("initialCapacity can't be less than 1");
+		}
+		int capacity = initialCapacity <= 2 ? 2 : Integer.highestOneBit(initialCapacity - 1) << 1;
+		this.top = new AtomicLong();
+		this.array = new CircularArray(capacity);
+	}
+
+	/**
+	 * Checks whether the deque has no elements. The answer may be stale if other threads are stealing.
+	 * @return <code>true</code> if deque has no elements, <code>false</code> otherwise
+	 */
+	public boolean isEmpty() {
+		return bottom <= top.get();
+	}
+
+	/**
+	 * Returns the number of elements in the deque. The answer may be stale if other threads are stealing.
+	 * @return number of elements in the deque.
+	 */
+	public int size() {
+		long size = bottom - top.get();
+		return size < 0 ? 0 : (int) size;
+	}
+
+	/**
+	 * Adds value at the bottom of the deque. May be called only by the owner thread.
+	 * @param value value to be pushed.
+	 * @throws IllegalArgumentException if given value is <code>null</code>.
+	 */
+	public void push(Object value) {
+		if(value == null) {
+			throw new IllegalArgumentException("Can not push null on stack");
+		}
+
+		long b = bottom;
+		long t = top.get();
+		CircularArray a = array;
+		if(b - t >= a.capacity() - 1) {
+			a = a.grow(b, t);
+			array = a;
+		}
+		a.put(b, value);
+		bottom = b + 1;
+	}
+
+	/**
+	 * Removes and returns the most recently pushed value. May be called only by the owner thread.
+	 * @return popped value, or <code>null</code> if deque is empty.
+	 */
+	public Object tryPop() {
+		long b = bottom - 1;
+		CircularArray a = array;
+		bottom = b;
+		long t = top.get();
+		if(b < t) {
+			bottom = t;
+			return null;
+		}
+
+		Object value = a.get(b);
+		if(b > t) {
+			a.put(b, null);
+			return value;
+		}
+		// only one element left, race with thieves for it
+		if(!top.compareAndSet(t, t + 1)) {
+			value = null;
+		}
+		bottom = t + 1;
+		return value;
+	}
+
+	/**
+	 * Removes and returns the most recently pushed value. May be called only by the owner thread.
+	 * @return popped value.
+	 * @throws EmptyStackException if deque is empty.
+	 */
+	public Object pop() {
+		Object value = tryPop();
+		if(value == null) {
+			throw new EmptyStackException("Can not pop from empty stack.");
+		}
+		return value;
+	}
+
+	/**
+	 * Removes and returns the least recently pushed value. May be called by any thread.
+	 * @return stolen value, or <code>null</code> if deque is empty or another thread took the value first.
+	 */
+	public Object steal() {
+		long t = top.get();
+		long b = bottom;
+		if(b <= t) {
+			return null;
+		}
+
+		CircularArray a = array;
+		Object value = a.get(t);
+		if(!top.compareAndSet(t, t + 1)) {
+			return null;
+		}
+		return value;
+	}
+
+	/**
+	 * Removes all elements from the deque. May be called only by the owner thread.
+	 */
+	public void clear() {
+		while(tryPop() != null) {
+		}
+	}
+
+}
@@ -0,0 +1,167 @@
+package hr.fer.zemris.java.custom.collections.demo;
+
+import hr.fer.zemris.java.custom.collections.ObjectStack;
+
+/**
+ * Converts infix expressions into the postfix form accepted by {@link StackDemo} and {@link PostfixProgram},
+ * using the shunting-yard algorithm with an {@link ObjectStack} of pending operators.
+ * <p>
+ * Supported are integers, binary operators '+', '-', '*', '/' and '%' with the usual precedence (multiplicative
+ * operators bind tighter than additive ones, and operators of the same precedence are left associative),
+ * parentheses and unary minus. Unary minus directly in front of a number becomes a negative number; in front of
+ * anything else, <code>-x</code> is written as <code>0 x -</code>, which has the same value in int arithmetic.
+ *
+ * @author Marko Benačić
+ *
+ */
+public class InfixConverter {
+
+	/**
+	 * Marker for unary minus on the operator stack.
+	 */
+	private static final Character NEGATE = Character.valueOf('~');
+
+	/**
+	 * Marker for opening parenthesis on the operator stack.
+	 */
+	private static final Character OPEN = Character.valueOf('(');
+
+	/**
+	 * Converts given infix expression into postfix form.
+	 * @param infix infix expression, eg. "-(1 + 8 / 2) * 3".
+	 * @return postfix expression with tokens separated by single spaces, eg. "0 1 8 2 / + - 3 *".
+	 * @throws NullPointerException if expression is <code>null</code>.
+	 * @throws IllegalArgumentException if expression is not a valid infix expression.
+	 */
+	public static String toPostfix(String infix) {
+		StringBuilder output = new StringBuilder(infix.length() * 2);
+		ObjectStack operators = new ObjectStack();
+		boolean expectOperand = true;
+		int length = infix.length();
+		int i = 0;
+
+		while(i < length) {
+			char c = infix.charAt(i);
+			if(Character.isWhitespace(c)) {
+				i++;
+				continue;
+			}
+
+			if(expectOperand) {
+				if(c == '(') {
+					operators.push(OPEN);
+					i++;
+				}else if(c == '-') {
+					int next = skipWhitespace(infix, i + 1);
+					if(next < length && isDigit(infix.charAt(next))) {
+						i = appendNumber(infix, next, true, output);
+						expectOperand = false;
+					}else {
+						append(output, "0");
+						operators.push(NEGATE);
+						i++;
+					}
+				}else if(isDigit(c)) {
+					i = appendNumber(infix, i, false, output);
+					expectOperand = false;
+				}else {
+					throw new IllegalArgumentException("Expected a number at position " + i + ".");
+				}
+				continue;
+			}
+
+			if(c == ')') {
+				while(true) {
+					if(operators.isEmpty()) {
+						throw new IllegalArgumentException("Unmatched ')' at position " + i + ".");
+					}
+					Object top = operators.pop();
+					if(top == OPEN) {
+						break;
+					}
+					appendOperator(output, top);
+				}
+			}else if(precedence(c) > 0) {
+				while(!operators.isEmpty() && operators.peek() != OPEN
+						&& precedence((Character) operators.peek()) >= precedence(c)) {
+					appendOperator(output, operators.pop());
+				}
+				operators.push(Character.valueOf(c));
+				expectOperand = true;
+			}else {
+				throw new IllegalArgumentException("Expected an operator at position " + i + ".");
+			}
+			i++;
+		}
+
+		if(expectOperand) {
+			throw new IllegalArgumentException("Expression ends without an operand.");
+		}
+		while(!operators.isEmpty()) {
+			Object top = operators.pop();
+			if(top == OPEN) {
+				throw new IllegalArgumentException("Unmatched '('.");
+			}
+			appendOperator(output, top);
+		}
+		return output.toString();
+	}
+
+	/**
+	 * Returns precedence of given operator, higher binds tighter, or 0 if it is not an operator.
+	 */
+	private static int precedence(char operator) {
+		switch(operator) {
+		case '+':
+		case '-':
+			return 1;
+		case '*':
+		case '/':
+		case '%':
+			return 2;
+		case '~':
+			return 3;
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * Appends operator popped from the stack to the output, writing unary minus as binary minus.
+	 */
+	private static void appendOperator(StringBuilder output, Object operator) {
+		append(output, operator == NEGATE ? "-" : operator.toString());
+	}
+
+	/**
+	 * Appends digits starting at given position to the output, with a leading minus if negative.
+	 * @return position after the last digit.
+	 */
+	private static int appendNumber(String infix, int position, boolean negative, StringBuilder output) {
+		int end = position;
+		while(end < infix.length() && isDigit(infix.charAt(end))) {
+			end++;
+		}
+		append(output, negative ? "-" + infix.substring(position, end) : infix.substring(position, end));
+		return end;
+	}
+
+	private static void append(StringBuilder output, String token) {
+		if(output.length() > 0) {
+			output.append(' ');
+		}
+		output.append(token);
+	}
+
+	private static int skipWhitespace(String text, int position) {
+		while(position < text.length() && Character.isWhitespace(text.charAt(position))) {
+			position++;
+		}
+		return position;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+}
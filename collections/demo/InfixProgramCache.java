@@ -0,0 +1,85 @@
+package hr.fer.zemris.java.custom.collections.demo;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of infix expressions converted by {@link InfixConverter} and compiled into {@link PostfixProgram}s.
+ * When the cache is full, the least recently used expression is dropped, so formulas which are evaluated over and
+ * over are parsed, converted and validated only once, while one-off formulas can not grow the cache without bound.
+ * The cache can be shared by many threads.
+ *
+ * @author Marko Benačić
+ *
+ */
+public class InfixProgramCache {
+
+	/**
+	 * Compiled programs by infix expression text, in access order.
+	 */
+	private final LinkedHashMap<String, PostfixProgram> programs;
+
+	/**
+	 * Creates an empty cache holding at most given number of expressions.
+	 * @param capacity maximum number of cached expressions.
+	 * @throws IllegalArgumentException if capacity is less than 1.
+	 */
+	public InfixProgramCache(final int capacity) {
+		if(capacity < 1) {
+			throw new IllegalArgumentException("capacity can't be less than 1");
+		}
+
+		this.programs = new LinkedHashMap<String, PostfixProgram>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, PostfixProgram> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Returns the compiled program for given infix expression, converting and compiling it if it is not cached.
+	 * Invalid expressions are not cached.
+	 * @param infix infix expression, eg. "-(1 + 8 / 2) * 3".
+	 * @return compiled program.
+	 * @throws NullPointerException if expression is <code>null</code>.
+	 * @throws IllegalArgumentException if expression is not valid.
+	 */
+	public PostfixProgram get(String infix) {
+		synchronized(programs) {
+			PostfixProgram program = programs.get(infix);
+			if(program != null) {
+				return program;
+			}
+		}
+
+		PostfixProgram program = PostfixProgram.compile(InfixConverter.toPostfix(infix));
+		synchronized(programs) {
+			programs.put(infix, program);
+		}
+		return program;
+	}
+
+	/**
+	 * Converts, compiles (or takes from the cache) and evaluates given infix expression.
+	 * @param infix infix expression.
+	 * @return value of the expression.
+	 * @throws IllegalArgumentException if expression is not valid.
+	 * @throws ArithmeticException if the expression divides by zero.
+	 */
+	public int evaluate(String infix) {
+		return get(infix).evaluate();
+	}
+
+	/**
+	 * @return number of cached expressions.
+	 */
+	public int size() {
+		synchronized(programs) {
+			return programs.size();
+		}
+	}
+
+}
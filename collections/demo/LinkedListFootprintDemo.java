@@ -0,0 +1,93 @@
+package hr.fer.zemris.java.custom.collections.demo;
+
+import java.lang.management.ManagementFactory;
+
+import hr.fer.zemris.java.custom.collections.ArenaLinkedListIndexedCollection;
+import hr.fer.zemris.java.custom.collections.Collection;
+import hr.fer.zemris.java.custom.collections.LinkedListIndexedCollection;
+import hr.fer.zemris.java.custom.collections.UnrolledLinkedListIndexedCollection;
+
+/**
+ * Program that compares memory footprint and allocation of linked list implementations.
+ * For each implementation it fills a list with the same elements, reports the retained heap and the bytes
+ * allocated while filling it, and then runs an add/remove churn and reports the bytes allocated by it.
+ * Allocation is measured with the HotSpot per-thread allocation counter.
+ * Accepts an optional argument: number of elements (default 1000000).
+ *
+ * @author Marko Benačić
+ *
+ */
+public class LinkedListFootprintDemo {
+
+	/**
+	 * Main method that starts the program.
+	 * @param args optional number of elements.
+	 */
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+		Integer[] values = new Integer[n];
+		for(int i = 0; i < n; i++) {
+			values[i] = Integer.valueOf(i);
+		}
+
+		System.out.printf("%-40s %15s %15s %15s%n", "implementation", "retained B/el", "fill alloc B/el", "churn alloc B/op");
+		for(int round = 0; round < 2; round++) {
+			// first round only warms up the JIT
+			boolean print = round == 1;
+			measure("LinkedListIndexedCollection", new LinkedListIndexedCollection(), values, print);
+			measure("UnrolledLinkedListIndexedCollection", new UnrolledLinkedListIndexedCollection(), values, print);
+			measure("ArenaLinkedListIndexedCollection", new ArenaLinkedListIndexedCollection(), values, print);
+		}
+	}
+
+	/**
+	 * Fills the given empty collection, then removes the first element and adds one at the end n times.
+	 */
+	private static void measure(String name, Collection collection, Integer[] values, boolean print) {
+		int n = values.length;
+
+		long heapBefore = usedHeap();
+		long allocatedBefore = allocatedBytes();
+		for(int i = 0; i < n; i++) {
+			collection.add(values[i]);
+		}
+		long fillAllocated = allocatedBytes() - allocatedBefore;
+		long retained = usedHeap() - heapBefore;
+
+		allocatedBefore = allocatedBytes();
+		for(int i = 0; i < n; i++) {
+			collection.remove(values[i]);
+			collection.add(values[i]);
+		}
+		long churnAllocated = allocatedBytes() - allocatedBefore;
+
+		if(print) {
+			System.out.printf("%-40s %15.1f %15.1f %15.2f%n", name, (double) retained / n,
+					(double) fillAllocated / n, (double) churnAllocated / n);
+		}
+		if(collection.size() != n) {
+			throw new IllegalStateException("unexpected size");
+		}
+	}
+
+	/**
+	 * Returns used heap after a garbage collection.
+	 */
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for(int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Returns number of bytes allocated by the current thread so far.
+	 */
+	private static long allocatedBytes() {
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+}
@@ -0,0 +1,358 @@
+package hr.fer.zemris.java.custom.collections.demo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Evaluates a file of postfix expressions, one expression per line, and writes one result per line into
+ * an output file. Expressions are in the same form as those accepted by {@link StackDemo}.
+ * <p>
+ * The input file is memory-mapped and split into chunks which end at line boundaries, and the chunks are
+ * evaluated in parallel, one thread per processor. Expressions are tokenized and evaluated directly from
+ * the mapped bytes over an <code>int</code> operand stack, so no String is created per line. Results of
+ * each chunk are collected into a byte buffer and written, in input order, to the output file channel.
+ * <p>
+ * A line which is not a valid expression produces <code>error: invalid expression</code>, a line which divides
+ * by zero produces <code>error: division by zero</code>, and an empty line produces an empty line.
+ *
+ * @author Marko Benačić
+ *
+ */
+public class PostfixBatchEvaluator {
+
+	/**
+	 * Largest chunk of the input evaluated by one task.
+	 */
+	private static final long MAX_CHUNK = 64L << 20;
+
+	/**
+	 * Smallest chunk of the input evaluated by one task, unless the file itself is smaller.
+	 */
+	private static final long MIN_CHUNK = 1L << 20;
+
+	private static final byte[] INVALID = "error: invalid expression".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] DIVISION_BY_ZERO = "error: division by zero".getBytes(StandardCharsets.US_ASCII);
+
+	/**
+	 * Result of evaluating the whole file.
+	 */
+	public static class Result {
+		private final long expressions;
+		private final long nanos;
+
+		Result(long expressions, long nanos) {
+			this.expressions = expressions;
+			this.nanos = nanos;
+		}
+
+		/**
+		 * @return number of evaluated lines.
+		 */
+		public long getExpressions() {
+			return expressions;
+		}
+
+		/**
+		 * @return time spent evaluating and writing, in nanoseconds.
+		 */
+		public long getNanos() {
+			return nanos;
+		}
+
+		/**
+		 * @return number of evaluated lines per second.
+		 */
+		public double getThroughput() {
+			return expressions / (nanos / 1e9);
+		}
+	}
+
+	/**
+	 * Evaluates every line of the input file and writes results into the output file, using one thread
+	 * per available processor.
+	 * @param input file with one postfix expression per line.
+	 * @param output file for results, created or overwritten.
+	 * @return number of expressions and time spent.
+	 * @throws IOException if a file can not be read or written.
+	 */
+	public static Result evaluate(Path input, Path output) throws IOException {
+		return evaluate(input, output, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Evaluates every line of the input file and writes results into the output file.
+	 * @param input file with one postfix expression per line.
+	 * @param output file for results, created or overwritten.
+	 * @param threads number of threads evaluating chunks of the file.
+	 * @return number of expressions and time spent.
+	 * @throws IOException if a file can not be read or written.
+	 * @throws IllegalArgumentException if number of threads is less than 1.
+	 */
+	public static Result evaluate(Path input, Path output, int threads) throws IOException {
+		if(threads < 1) {
+			throw new IllegalArgumentException("threads can't be less than 1");
+		}
+
+		long begin = System.nanoTime();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try(FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+				FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+						StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+			long size = in.size();
+			long chunk = Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, size / (threads * 4L)));
+			List<Future<ChunkResult>> results = new ArrayList<>();
+			long start = 0;
+			while(start < size) {
+				long end = lineEnd(in, Math.min(size, start + chunk), size);
+				results.add(pool.submit(new ChunkTask(in.map(FileChannel.MapMode.READ_ONLY, start, end - start))));
+				start = end;
+			}
+
+			long expressions = 0;
+			for(Future<ChunkResult> future : results) {
+				ChunkResult result = future.get();
+				ByteBuffer buffer = ByteBuffer.wrap(result.bytes, 0, result.length);
+				while(buffer.hasRemaining()) {
+					out.write(buffer);
+				}
+				expressions += result.lines;
+			}
+			return new Result(expressions, System.nanoTime() - begin);
+
+		}catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while evaluating.", e);
+		}catch(ExecutionException e) {
+			throw new IOException("Evaluation failed.", e.getCause());
+		}finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Returns the position just after the first line feed at or after given position, or the end of the file.
+	 */
+	private static long lineEnd(FileChannel channel, long position, long size) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		while(position < size) {
+			buffer.clear();
+			int read = channel.read(buffer, position);
+			if(read <= 0) {
+				break;
+			}
+			for(int i = 0; i < read; i++) {
+				if(buffer.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += read;
+		}
+		return size;
+	}
+
+	/**
+	 * Output of one chunk.
+	 */
+	private static class ChunkResult {
+		byte[] bytes = new byte[1 << 16];
+		int length;
+		long lines;
+
+		void write(byte b) {
+			if(length == bytes.length) {
+				bytes = Arrays.copyOf(bytes, length * 2);
+			}
+			bytes[length++] = b;
+		}
+
+		void write(byte[] b) {
+			if(length + b.length > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.max(length * 2, length + b.length));
+			}
+			System.arraycopy(b, 0, bytes, length, b.length);
+			length += b.length;
+		}
+
+		void write(int value) {
+			long v = value;
+			if(v < 0) {
+				write((byte) '-');
+				v = -v;
+			}
+			long divisor = 1;
+			while(divisor * 10 <= v) {
+				divisor *= 10;
+			}
+			for(; divisor > 0; divisor /= 10) {
+				write((byte) ('0' + (v / divisor) % 10));
+			}
+		}
+	}
+
+	/**
+	 * Task evaluating every line of one mapped chunk.
+	 */
+	private static class ChunkTask implements Callable<ChunkResult> {
+
+		/**
+		 * Line contains something other than a valid expression.
+		 */
+		private static final int INVALID_LINE = -1;
+
+		/**
+		 * Line divides by zero.
+		 */
+		private static final int DIVIDES_BY_ZERO = -2;
+
+		private final MappedByteBuffer chunk;
+		private int[] stack = new int[16];
+		private int top;
+
+		ChunkTask(MappedByteBuffer chunk) {
+			this.chunk = chunk;
+		}
+
+		@Override
+		public ChunkResult call() {
+			ChunkResult result = new ChunkResult();
+			int limit = chunk.limit();
+			int position = 0;
+			while(position < limit) {
+				int end = position;
+				while(end < limit && chunk.get(end) != '\n') {
+					end++;
+				}
+
+				int status = evaluateLine(position, end);
+				if(status == INVALID_LINE) {
+					result.write(INVALID);
+				}else if(status == DIVIDES_BY_ZERO) {
+					result.write(DIVISION_BY_ZERO);
+				}else if(top == 0) {
+					result.write(stack[0]);
+				}
+				result.write((byte) '\n');
+				result.lines++;
+				position = end + 1;
+			}
+			return result;
+		}
+
+		/**
+		 * Evaluates the expression in bytes [from, to) of the chunk. Result is left at the bottom of the stack.
+		 * @return 0 if the line is valid or blank, otherwise INVALID_LINE or DIVIDES_BY_ZERO.
+		 */
+		private int evaluateLine(int from, int to) {
+			top = -1;
+			int position = from;
+			while(true) {
+				while(position < to && isWhitespace(chunk.get(position))) {
+					position++;
+				}
+				if(position == to) {
+					break;
+				}
+				int tokenEnd = position;
+				while(tokenEnd < to && !isWhitespace(chunk.get(tokenEnd))) {
+					tokenEnd++;
+				}
+
+				byte first = chunk.get(position);
+				if(tokenEnd - position == 1 && isOperator(first)) {
+					if(top < 1) {
+						return INVALID_LINE;
+					}
+					int right = stack[top--];
+					int left = stack[top];
+					switch(first) {
+					case '+':
+						stack[top] = left + right;
+						break;
+					case '-':
+						stack[top] = left - right;
+						break;
+					case '*':
+						stack[top] = left * right;
+						break;
+					default:
+						if(right == 0) {
+							return DIVIDES_BY_ZERO;
+						}
+						stack[top] = first == '/' ? left / right : left % right;
+						break;
+					}
+				}else {
+					if(!parseOperand(position, tokenEnd)) {
+						return INVALID_LINE;
+					}
+				}
+				position = tokenEnd;
+			}
+			// blank line is valid and has no result
+			return top == 0 || top == -1 ? 0 : INVALID_LINE;
+		}
+
+		/**
+		 * Parses an integer the way Integer.parseInt does and pushes it on the stack.
+		 * @return <code>false</code> if bytes [from, to) are not a valid int.
+		 */
+		private boolean parseOperand(int from, int to) {
+			boolean negative = false;
+			int position = from;
+			byte first = chunk.get(position);
+			if(first == '-' || first == '+') {
+				negative = first == '-';
+				position++;
+			}
+			if(position == to) {
+				return false;
+			}
+			long value = 0;
+			for(; position < to; position++) {
+				int digit = chunk.get(position) - '0';
+				if(digit < 0 || digit > 9) {
+					return false;
+				}
+				value = value * 10 + digit;
+				if(value > 1L + Integer.MAX_VALUE) {
+					return false;
+				}
+			}
+			if(negative) {
+				value = -value;
+			}
+			if(value > Integer.MAX_VALUE) {
+				return false;
+			}
+
+			if(++top == stack.length) {
+				stack = Arrays.copyOf(stack, stack.length * 2);
+			}
+			stack[top] = (int) value;
+			return true;
+		}
+
+		private static boolean isWhitespace(byte b) {
+			return b == ' ' || b == '\t' || b == '\r' || b == '\f' || b == 0x0B;
+		}
+
+		private static boolean isOperator(byte b) {
+			return b == '+' || b == '-' || b == '*' || b == '/' || b == '%';
+		}
+	}
+
+}
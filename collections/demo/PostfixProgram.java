@@ -0,0 +1,236 @@
+package hr.fer.zemris.java.custom.collections.demo;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Postfix expression compiled into a compact array of instructions over an <code>int</code> operand stack.
+ * Expressions are in the same form as those accepted by {@link StackDemo}: integers and symbols
+ * '+', '-', '*', '/' and '%' separated by white space, with the same integer arithmetic.
+ * <p>
+ * Parsing and validation are done once, in <code>compile</code>, so evaluation only walks the instructions,
+ * never creates a String or a boxed number and never uses exceptions for control flow. Programs are immutable
+ * and can be evaluated by many threads at once; {@link #cached(String)} keeps the most recently used programs
+ * by expression text, so formulas evaluated over and over are compiled only once.
+ *
+ * @author Marko Benačić
+ *
+ */
+public class PostfixProgram {
+
+	/**
+	 * Instruction which pushes the operand stored in the next slot of the code.
+	 */
+	private static final int PUSH = 0;
+	private static final int ADD = 1;
+	private static final int SUB = 2;
+	private static final int MUL = 3;
+	private static final int DIV = 4;
+	private static final int MOD = 5;
+
+	/**
+	 * Maximum number of programs kept by {@link #cached(String)}. When it is exceeded, the least recently used
+	 * program is evicted.
+	 */
+	private static final int CACHE_LIMIT = 10_000;
+
+	/**
+	 * Programs compiled by {@link #cached(String)}, by expression text, in access order.
+	 */
+	private static final LinkedHashMap<String, PostfixProgram> CACHE =
+			new LinkedHashMap<String, PostfixProgram>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, PostfixProgram> eldest) {
+			return size() > CACHE_LIMIT;
+		}
+	};
+
+	/**
+	 * Operand stack of each thread, reused by {@link #evaluate()}.
+	 */
+	private static final ThreadLocal<int[]> STACKS = new ThreadLocal<int[]>() {
+		@Override
+		protected int[] initialValue() {
+			return new int[16];
+		}
+	};
+
+	/**
+	 * Instructions of the program, operands of PUSH follow the instruction.
+	 */
+	private final int[] code;
+
+	/**
+	 * Largest number of operands on the stack during evaluation.
+	 */
+	private final int maxDepth;
+
+	/**
+	 * Creates a program from already validated instructions.
+	 */
+	private PostfixProgram(int[] code, int maxDepth) {
+		this.code = code;
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * Compiles given postfix expression, or returns the program compiled earlier for the same expression text.
+	 * @param expression postfix expression, eg. "-1 8 2 / +".
+	 * @return compiled program.
+	 * @throws NullPointerException if expression is <code>null</code>.
+	 * @throws IllegalArgumentException if expression is invalid.
+	 */
+	public static PostfixProgram cached(String expression) {
+		synchronized(CACHE) {
+			PostfixProgram program = CACHE.get(expression);
+			if(program != null) {
+				return program;
+			}
+		}
+
+		PostfixProgram program = compile(expression);
+		synchronized(CACHE) {
+			CACHE.put(expression, program);
+		}
+		return program;
+	}
+
+	/**
+	 * Compiles given postfix expression.
+	 * @param expression postfix expression, eg. "-1 8 2 / +".
+	 * @return compiled program.
+	 * @throws NullPointerException if expression is <code>null</code>.
+	 * @throws IllegalArgumentException if expression contains something other than integers and operators,
+	 * if an operator does not have two operands, or if the expression does not leave exactly one result.
+	 */
+	public static PostfixProgram compile(String expression) {
+		String trimmed = expression.trim();
+		if(trimmed.isEmpty()) {
+			throw new IllegalArgumentException("Expression is empty.");
+		}
+		String[] tokens = trimmed.split("\\s+");
+
+		int[] code = new int[tokens.length * 2];
+		int length = 0;
+		int depth = 0;
+		int maxDepth = 0;
+		for(String token : tokens) {
+			int operator = operator(token);
+			if(operator == PUSH) {
+				try {
+					code[length + 1] = Integer.parseInt(token);
+				}catch(NumberFormatException nfe) {
+					throw new IllegalArgumentException("Invalid token: " + token);
+				}
+				code[length] = PUSH;
+				length += 2;
+				depth++;
+				maxDepth = Math.max(maxDepth, depth);
+			}else {
+				if(depth < 2) {
+					throw new IllegalArgumentException("Operator " + token + " needs two operands.");
+				}
+				code[length++] = operator;
+				depth--;
+			}
+		}
+		if(depth != 1) {
+			throw new IllegalArgumentException("Expression leaves " + depth + " values instead of one.");
+		}
+
+		return new PostfixProgram(Arrays.copyOf(code, length), maxDepth);
+	}
+
+	/**
+	 * Returns the instruction for given operator token, or PUSH if token is not an operator.
+	 */
+	private static int operator(String token) {
+		if(token.length() != 1) {
+			return PUSH;
+		}
+		switch(token.charAt(0)) {
+		case '+':
+			return ADD;
+		case '-':
+			return SUB;
+		case '*':
+			return MUL;
+		case '/':
+			return DIV;
+		case '%':
+			return MOD;
+		default:
+			return PUSH;
+		}
+	}
+
+	/**
+	 * Returns the number of operand stack slots needed to evaluate this program.
+	 * @return largest number of operands on the stack during evaluation.
+	 */
+	public int maxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Evaluates the program using an operand stack kept for the current thread.
+	 * @return value of the expression.
+	 * @throws ArithmeticException if the expression divides by zero.
+	 */
+	public int evaluate() {
+		int[] stack = STACKS.get();
+		if(stack.length < maxDepth) {
+			stack = new int[Math.max(maxDepth, stack.length * 2)];
+			STACKS.set(stack);
+		}
+		return evaluate(stack);
+	}
+
+	/**
+	 * Evaluates the program using given array as the operand stack.
+	 * @param stack array with at least {@link #maxDepth()} elements, its content is overwritten.
+	 * @return value of the expression.
+	 * @throws IllegalArgumentException if given stack is too small.
+	 * @throws ArithmeticException if the expression divides by zero.
+	 */
+	public int evaluate(int[] stack) {
+		if(stack.length < maxDepth) {
+			throw new IllegalArgumentException("Stack must have at least " + maxDepth + " elements.");
+		}
+
+		int[] code = this.code;
+		int top = -1;
+		for(int pc = 0; pc < code.length; pc++) {
+			switch(code[pc]) {
+			case PUSH:
+				stack[++top] = code[++pc];
+				break;
+			case ADD:
+				stack[top - 1] += stack[top];
+				top--;
+				break;
+			case SUB:
+				stack[top - 1] -= stack[top];
+				top--;
+				break;
+			case MUL:
+				stack[top - 1] *= stack[top];
+				top--;
+				break;
+			case DIV:
+				stack[top - 1] /= stack[top];
+				top--;
+				break;
+			default:
+				stack[top - 1] %= stack[top];
+				top--;
+				break;
+			}
+		}
+		return stack[0];
+	}
+
+}
@@ -0,0 +1,117 @@
+package hr.fer.zemris.java.custom.collections.demo;
+
+import java.util.concurrent.CountDownLatch;
+
+import hr.fer.zemris.java.custom.collections.ConcurrentObjectStack;
+import hr.fer.zemris.java.custom.collections.ObjectStack;
+
+/**
+ * Program that compares throughput of {@link ConcurrentObjectStack} and of an {@link ObjectStack} guarded by
+ * a global lock. For every number of threads from 1 to N, each thread pushes and pops values in a loop on one
+ * shared stack, and the program writes the total number of operations per second for both stacks.
+ * Accepts optional arguments: maximum number of threads (default: number of processors) and
+ * number of push/pop pairs per thread (default 1000000).
+ *
+ * @author Marko Benačić
+ *
+ */
+public class StackContentionDemo {
+
+	/**
+	 * Main method that starts the program.
+	 * @param args optional maximum number of threads and number of push/pop pairs per thread.
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		int pairs = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+		// warm up both implementations before measuring
+		run(new LockedStack(), maxThreads, pairs / 10);
+		run(new LockFreeStack(), maxThreads, pairs / 10);
+
+		System.out.printf("%8s %22s %22s%n", "threads", "synchronized ops/s", "lock-free ops/s");
+		for(int threads = 1; threads <= maxThreads; threads++) {
+			double locked = run(new LockedStack(), threads, pairs);
+			double lockFree = run(new LockFreeStack(), threads, pairs);
+			System.out.printf("%8d %22.0f %22.0f%n", threads, locked, lockFree);
+		}
+	}
+
+	/**
+	 * Runs given number of threads doing push/pop pairs on the stack.
+	 * @return operations per second.
+	 */
+	private static double run(final Stack stack, int threads, final int pairs) throws InterruptedException {
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(threads);
+		final Integer value = Integer.valueOf(42);
+
+		for(int t = 0; t < threads; t++) {
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					}catch(InterruptedException e) {
+						return;
+					}
+					for(int i = 0; i < pairs; i++) {
+						stack.push(value);
+						stack.pop();
+					}
+					done.countDown();
+				}
+			});
+			thread.start();
+		}
+
+		long begin = System.nanoTime();
+		start.countDown();
+		done.await();
+		long elapsed = System.nanoTime() - begin;
+		return 2.0 * pairs * threads / (elapsed / 1e9);
+	}
+
+	/**
+	 * Common operations of both measured stacks.
+	 */
+	private interface Stack {
+		void push(Object value);
+		Object pop();
+	}
+
+	/**
+	 * ObjectStack guarded by a global lock.
+	 */
+	private static class LockedStack implements Stack {
+		private final ObjectStack stack = new ObjectStack();
+
+		@Override
+		public synchronized void push(Object value) {
+			stack.push(value);
+		}
+
+		@Override
+		public synchronized Object pop() {
+			return stack.pop();
+		}
+	}
+
+	/**
+	 * ConcurrentObjectStack used without any lock.
+	 */
+	private static class LockFreeStack implements Stack {
+		private final ConcurrentObjectStack stack = new ConcurrentObjectStack();
+
+		@Override
+		public void push(Object value) {
+			stack.push(value);
+		}
+
+		@Override
+		public Object pop() {
+			return stack.pop();
+		}
+	}
+
+}
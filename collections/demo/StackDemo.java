@@ -1,11 +1,18 @@
 package hr.fer.zemris.java.custom.collections.demo;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 import hr.fer.zemris.java.custom.collections.ObjectStack;
 
 /**
  * Program that accepts one line argument: basic math expression that we wish to calculate, using a basic stack implementation. 
  * Expression must be given in form of postfix representation. Program accepts ONLY ONE argument, which should be a string
  * containing numbers and basic math symbols ( '+', '-', '*', '/' and '%'). Symbols and numbers must be seperated by white space.
+ * <p>
+ * In batch mode, started with arguments <code>--batch input output</code>, program evaluates every line of the input file
+ * as one expression, writes the results into the output file (see {@link PostfixBatchEvaluator}) and reports throughput.
  * 
  * @author Marko Benačić
  *
@@ -14,11 +21,16 @@ public class StackDemo {
 	
 	/**
 	 * Main method that starts the program.
-	 * @param args only ONE argument must be given eg. "-1 8 2 / +".
+	 * @param args only ONE argument must be given eg. "-1 8 2 / +", or "--batch", input file and output file.
 	 */
 	public static void main(String[] args) {
+		if(args.length == 3 && args[0].equals("--batch")) {
+			runBatch(Paths.get(args[1]), Paths.get(args[2]));
+			return;
+		}
 		if(args.length != 1) {
 			System.out.println("Wrong number of arguments, number of arguments required: 1");
+			System.out.println("(or 3 for batch mode: --batch input output)");
 			System.out.println("Closing...");
 			return;
 		}
@@ -53,6 +65,21 @@ public class StackDemo {
 		
 	}
 	
+	/**
+	 * Evaluates every line of the input file in parallel and writes results into the output file.
+	 * @param input file with one postfix expression per line.
+	 * @param output file for results.
+	 */
+	private static void runBatch(Path input, Path output) {
+		try {
+			PostfixBatchEvaluator.Result result = PostfixBatchEvaluator.evaluate(input, output);
+			System.out.printf("Evaluated %d expressions in %.3f s (%.0f expressions/sec)%n",
+					result.getExpressions(), result.getNanos() / 1e9, result.getThroughput());
+		}catch(IOException ioe) {
+			System.out.println("Batch evaluation failed: " + ioe.getMessage() + ". Closing...");
+		}
+	}
+	
 	/**
 	 * Calculates one iteration of our postfix stack algorithm. 
 	 * @param element number or symbol to be calculated.
@@ -0,0 +1,141 @@
+package hr.fer.zemris.java.custom.collections.demo;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import hr.fer.zemris.java.custom.collections.WorkStealingDeque;
+
+/**
+ * Small scheduler built on {@link WorkStealingDeque} which shows load balancing between workers.
+ * The whole job is a binary tree of tasks, and only its root is given to the first worker. Every task does
+ * some computation and pushes its two subtasks to the deque of the worker executing it. A worker takes tasks
+ * from its own deque, and when it runs out, steals from a randomly chosen other worker. At the end the program
+ * writes how many tasks each worker executed and how many it stole.
+ * Accepts optional arguments: number of workers (default: number of processors) and depth of the task tree
+ * (default 20).
+ *
+ * @author Marko Benačić
+ *
+ */
+public class WorkStealingDemo {
+
+	/**
+	 * Main method that starts the program.
+	 * @param args optional number of workers and depth of the task tree.
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int workerCount = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		int depth = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+		AtomicLong pending = new AtomicLong(1);
+		Worker[] workers = new Worker[workerCount];
+		for(int i = 0; i < workerCount; i++) {
+			workers[i] = new Worker(i, workers, pending);
+		}
+		workers[0].deque.push(new Task(depth));
+
+		long begin = System.nanoTime();
+		for(Worker worker : workers) {
+			worker.start();
+		}
+		for(Worker worker : workers) {
+			worker.join();
+		}
+		long elapsed = System.nanoTime() - begin;
+
+		long total = 0;
+		long checksum = 0;
+		System.out.printf("%8s %12s %12s%n", "worker", "executed", "stolen");
+		for(Worker worker : workers) {
+			System.out.printf("%8d %12d %12d%n", worker.id, worker.executed, worker.stolen);
+			total += worker.executed;
+			checksum += worker.checksum;
+		}
+		System.out.printf("%d tasks in %.1f ms (checksum %x)%n", total, elapsed / 1e6, checksum);
+	}
+
+	/**
+	 * Node of the task tree.
+	 */
+	private static class Task {
+		final int depth;
+
+		Task(int depth) {
+			this.depth = depth;
+		}
+
+		/**
+		 * Does some computation, adds its result to the worker's checksum and pushes subtasks to the worker's
+		 * deque. Subtasks are counted as pending before they are pushed, so a thief can not finish one of them
+		 * before it is counted.
+		 */
+		void execute(Worker worker) {
+			long x = depth;
+			for(int i = 0; i < 2_000; i++) {
+				x = x * 6364136223846793005L + 1442695040888963407L;
+			}
+			worker.checksum += x;
+			if(depth == 0) {
+				return;
+			}
+			worker.pending.addAndGet(2);
+			worker.deque.push(new Task(depth - 1));
+			worker.deque.push(new Task(depth - 1));
+		}
+	}
+
+	/**
+	 * Thread owning one deque. Works until there are no pending tasks in the whole scheduler.
+	 */
+	private static class Worker extends Thread {
+		final int id;
+		final WorkStealingDeque deque = new WorkStealingDeque();
+		final Worker[] workers;
+		final AtomicLong pending;
+		long executed;
+		long stolen;
+		/**
+		 * sum of results of executed tasks, written out so the computation can not be optimised away.
+		 */
+		long checksum;
+
+		Worker(int id, Worker[] workers, AtomicLong pending) {
+			this.id = id;
+			this.workers = workers;
+			this.pending = pending;
+		}
+
+		@Override
+		public void run() {
+			while(pending.get() > 0) {
+				Task task = (Task) deque.tryPop();
+				if(task == null) {
+					task = stealTask();
+					if(task == null) {
+						Thread.yield();
+						continue;
+					}
+					stolen++;
+				}
+				task.execute(this);
+				pending.decrementAndGet();
+				executed++;
+			}
+		}
+
+		/**
+		 * Tries to steal a task from a randomly chosen other worker.
+		 */
+		private Task stealTask() {
+			if(workers.length == 1) {
+				return null;
+			}
+			int victim = ThreadLocalRandom.current().nextInt(workers.length - 1);
+			if(victim >= id) {
+				victim++;
+			}
+			return (Task) workers[victim].deque.steal();
+		}
+	}
+
+}